@@ -0,0 +1,11 @@
+import headless.HeadlessHost;
+
+public class HeadlessMain {
+    public static void main(String[] args) throws Exception {
+        // Never try to open a display, even where one exists
+        System.setProperty("java.awt.headless", "true");
+
+        HeadlessHost host = HeadlessHost.fromArguments(args);
+        host.run();
+    }
+}
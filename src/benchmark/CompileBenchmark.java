@@ -0,0 +1,175 @@
+package benchmark;
+
+import client.ClientConnection;
+import game.internal.assets.Assets;
+import loader.LoadReport;
+import loader.ObjectLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long {@link ObjectLoader#loadAll(java.util.Collection, int)} takes to compile and load
+ * batches of synthetic submissions with different numbers of compilers running at once.
+ * Every batch is compiled once before it is measured, so the compiler is already warmed up.
+ * How the submissions are split between compilers does not change which of them load, as a submission
+ * which refers to another is always compiled again on its own, so every row of a batch should load as many.
+ * Must be run from the project directory, as players load their sprites.
+ * Usage: {@code java benchmark.CompileBenchmark [submissions...]}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class CompileBenchmark {
+    private static final int[] DEFAULT_SUBMISSIONS = { 50, 200, 500 };
+
+    /** Sprites are never drawn, so load them small */
+    private static final int SPRITE_SIZE = 16;
+
+    /**
+     * main
+     * Runs the benchmark.
+     * @param args the optional numbers of submissions in each batch
+     * @throws IOException if the sprites cannot be loaded
+     */
+    public static void main(String[] args) throws IOException {
+        int[] batchSizes = DEFAULT_SUBMISSIONS;
+
+        if (args.length > 0) {
+            batchSizes = new int[args.length];
+
+            for (int i = 0; i < args.length; i++) {
+                batchSizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        Assets.initialize(SPRITE_SIZE);
+
+        int numCores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-12s %10s %10s %10s %10s%n", "submissions", "compilers", "wall ms", "loaded", "speedup");
+
+        for (int batchSize : batchSizes) {
+            List<ClientConnection> clients = createClients(batchSize);
+            long sequentialNanos = 0;
+            int sequentialLoaded = 0;
+
+            for (int parallelism : getParallelisms(numCores)) {
+                // Warm up, then measure
+                run(clients, parallelism);
+
+                long start = System.nanoTime();
+                LoadReport report = run(clients, parallelism);
+                long nanos = System.nanoTime() - start;
+
+                if (parallelism == 1) {
+                    sequentialNanos = nanos;
+                    sequentialLoaded = report.getPlayers().size();
+                } else if (report.getPlayers().size() != sequentialLoaded) {
+                    System.out.println("Loaded " + report.getPlayers().size() + " players instead of " + sequentialLoaded);
+                }
+
+                System.out.printf("%-12d %10d %10d %10d %10.2f%n",
+                        batchSize,
+                        parallelism,
+                        TimeUnit.NANOSECONDS.toMillis(nanos),
+                        report.getPlayers().size(),
+                        sequentialNanos / (double) nanos);
+            }
+        }
+    }
+
+    /**
+     * run
+     * Compiles and loads every submission with a fresh loader, as the game does when it starts.
+     * @param clients the clients with submitted code
+     * @param parallelism the most compilers to run at once
+     * @return the loaded players
+     * @throws IOException if the compiler cannot be released
+     */
+    private static LoadReport run(List<ClientConnection> clients, int parallelism) throws IOException {
+        try (ObjectLoader loader = new ObjectLoader()) {
+            return loader.loadAll(clients, parallelism);
+        }
+    }
+
+    /**
+     * getParallelisms
+     * Gets the numbers of compilers to measure: powers of two up to the number of cores, and the number of cores.
+     * @param numCores the number of available cores
+     * @return the numbers of compilers in ascending order
+     */
+    private static List<Integer> getParallelisms(int numCores) {
+        List<Integer> parallelisms = new ArrayList<>();
+
+        for (int parallelism = 1; parallelism < numCores; parallelism *= 2) {
+            parallelisms.add(parallelism);
+        }
+
+        parallelisms.add(numCores);
+
+        return parallelisms;
+    }
+
+    /**
+     * createClients
+     * Creates clients which have each submitted a different bot, as a class compiles like the real submissions.
+     * @param numClients the number of clients
+     * @return the clients
+     */
+    private static List<ClientConnection> createClients(int numClients) {
+        List<ClientConnection> clients = new ArrayList<>();
+
+        for (int i = 0; i < numClients; i++) {
+            ClientConnection client = new ClientConnection();
+            client.setName("Bot" + i);
+            client.setCode(createSubmission("Bot" + i, i));
+            clients.add(client);
+        }
+
+        return clients;
+    }
+
+    /**
+     * createSubmission
+     * Creates the source of a bot which chases the nearest currency and buys power with a threshold of its own.
+     * @param name the player name
+     * @param threshold the currency the bot saves before buying
+     * @return the source code
+     */
+    private static String createSubmission(String name, int threshold) {
+        return "import game.*;\n" +
+                "import game.actions.*;\n" +
+                "\n" +
+                "public class " + name + "Player extends Player {\n" +
+                "\tprivate int cycles;\n" +
+                "\n" +
+                "\tpublic void cycle(Data data, Shop shop) {\n" +
+                "\t\tthis.cycles++;\n" +
+                "\n" +
+                "\t\tif (this.getCurrency() > " + (threshold % 10) + ") {\n" +
+                "\t\t\tshop.buyPower();\n" +
+                "\t\t}\n" +
+                "\n" +
+                "\t\tPoint target = data.getCurrencyLocation(1);\n" +
+                "\n" +
+                "\t\tif (target == null) {\n" +
+                "\t\t\ttarget = data.getEnemyLocation(1);\n" +
+                "\t\t}\n" +
+                "\n" +
+                "\t\tif (target != null) {\n" +
+                "\t\t\tthis.setDirection(this.towards(data.getPosition(), target));\n" +
+                "\t\t}\n" +
+                "\t}\n" +
+                "\n" +
+                "\tprivate Direction towards(Point from, Point to) {\n" +
+                "\t\tif (Math.abs(to.getX() - from.getX()) > Math.abs(to.getY() - from.getY())) {\n" +
+                "\t\t\treturn to.getX() > from.getX() ? Direction.RIGHT : Direction.LEFT;\n" +
+                "\t\t}\n" +
+                "\n" +
+                "\t\treturn to.getY() > from.getY() ? Direction.DOWN : Direction.UP;\n" +
+                "\t}\n" +
+                "}\n";
+    }
+}
@@ -0,0 +1,199 @@
+package benchmark;
+
+import server.HostServer;
+import server.ServerConfig;
+import server.ServerMode;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that idle connections cost the host no CPU while it is {@link server.ServerState#ACCEPTING}.
+ * For every server mode, one client and then many loopback clients register and stay idle,
+ * and the CPU time used by host threads over a fixed window is sampled through {@link ThreadMXBean}.
+ * Heartbeats are sent rarely, so only the cost of waiting for the state to change is measured.
+ * The CPU used with many clients should stay about the same as with one,
+ * while a handler which busy-waits would use up to a whole core, 1000 ms every second, per client.
+ * Host figures only cover platform threads, so virtual threads appear through their carrier threads.
+ * Usage: {@code java benchmark.IdleCpuBenchmark [clients] [window ms] [mode]}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class IdleCpuBenchmark {
+    private static final int DEFAULT_CLIENTS = 500;
+    private static final long DEFAULT_WINDOW = TimeUnit.SECONDS.toMillis(5);
+    private static final long CONNECT_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    /** Long enough that no heartbeat is sent during a window */
+    private static final long HEARTBEAT_INTERVAL = TimeUnit.MINUTES.toMillis(5);
+    private static final long HEARTBEAT_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+    /** Names of the simulated client threads, which are not counted as host threads */
+    private static final String CLIENT_THREAD_PREFIX = "IdleCpuBenchmark-Client-";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * main
+     * Runs the benchmark.
+     * @param args the optional number of clients, sampling window in milliseconds and server mode
+     * @throws Exception if the benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        int numClients = DEFAULT_CLIENTS;
+        long window = DEFAULT_WINDOW;
+        ServerMode[] modes = ServerMode.values();
+
+        if (args.length > 0) {
+            numClients = Integer.parseInt(args[0]);
+        }
+
+        if (args.length > 1) {
+            window = Long.parseLong(args[1]);
+        }
+
+        if (args.length > 2) {
+            modes = new ServerMode[] { ServerMode.valueOf(args[2].toUpperCase()) };
+        }
+
+        if (!THREADS.isThreadCpuTimeSupported()) {
+            System.out.println("Thread CPU time is not supported by this JVM");
+            return;
+        }
+
+        THREADS.setThreadCpuTimeEnabled(true);
+
+        System.out.printf("Host CPU while idle in ACCEPTING, sampled over %d ms%n", window);
+        System.out.printf("%-10s %16s %16s %10s%n",
+                "mode", "1 client ms/s", numClients + " clients ms/s", "ratio");
+
+        for (ServerMode mode : modes) {
+            double single = run(mode, 1, window);
+            double many = run(mode, numClients, window);
+
+            System.out.printf("%-10s %16.2f %16.2f %10.2f%n", mode, single, many, many / Math.max(single, 0.01));
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * run
+     * Connects idle clients to a server in one mode and samples the CPU time of the host.
+     * @param mode the server mode
+     * @param numClients the number of clients
+     * @param window how long to sample for in milliseconds
+     * @return the CPU time used by host threads, in milliseconds per second of the window
+     * @throws IOException if an I/O error occurs
+     * @throws InterruptedException if interrupted while waiting for clients
+     */
+    private static double run(ServerMode mode, int numClients, long window) throws IOException, InterruptedException {
+        ServerConfig config = new ServerConfig();
+        config.setMode(mode);
+        config.setHeartbeatInterval(HEARTBEAT_INTERVAL);
+        config.setHeartbeatTimeout(HEARTBEAT_TIMEOUT);
+
+        HostServer server = new HostServer(config);
+        server.serve();
+
+        CountDownLatch connected = new CountDownLatch(numClients);
+        List<SimulatedClient> clients = new ArrayList<>();
+        List<Thread> clientThreads = new ArrayList<>();
+
+        for (int i = 0; i < numClients; i++) {
+            SimulatedClient client = new SimulatedClient("localhost", server.getPort(), "Bot" + i);
+
+            Thread thread = new Thread(() -> {
+                try {
+                    client.connect();
+                    connected.countDown();
+                    client.idle();
+                } catch (IOException e) {
+                    // Sockets are closed at the end of the run
+                    if (connected.getCount() > 0) {
+                        System.out.println(client.getName() + " failed: " + e.getMessage());
+                    }
+                }
+            }, CLIENT_THREAD_PREFIX + i);
+
+            clients.add(client);
+            clientThreads.add(thread);
+            thread.start();
+        }
+
+        if (!connected.await(CONNECT_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            System.out.println(mode + ": only " + (numClients - connected.getCount()) + " clients connected");
+        }
+
+        // Let the work of registering settle before sampling
+        Thread.sleep(1000);
+
+        Map<Long, Long> baseCpu = getHostCpuTimes();
+        long start = System.nanoTime();
+
+        Thread.sleep(window);
+
+        long cpuNanos = getHostCpuNanos(baseCpu);
+        long elapsed = System.nanoTime() - start;
+
+        // Clean up
+        server.close();
+
+        for (SimulatedClient client : clients) {
+            client.close();
+        }
+
+        for (Thread thread : clientThreads) {
+            thread.join();
+        }
+
+        // Let handler threads exit before the next run is measured
+        Thread.sleep(1000);
+
+        return (cpuNanos / 1_000_000.0) / (elapsed / 1_000_000_000.0);
+    }
+
+    /**
+     * getHostCpuTimes
+     * Gets the CPU time of every live platform thread which does not belong to a simulated client.
+     * @return the CPU time in nanoseconds of each thread by id
+     */
+    private static Map<Long, Long> getHostCpuTimes() {
+        Map<Long, Long> cpuTimes = new HashMap<>();
+
+        for (ThreadInfo info : THREADS.getThreadInfo(THREADS.getAllThreadIds())) {
+            if ((info == null) || info.getThreadName().startsWith(CLIENT_THREAD_PREFIX)) {
+                continue;
+            }
+
+            cpuTimes.put(info.getThreadId(), Math.max(0, THREADS.getThreadCpuTime(info.getThreadId())));
+        }
+
+        return cpuTimes;
+    }
+
+    /**
+     * getHostCpuNanos
+     * Gets the CPU time used by host threads since a snapshot.
+     * Threads which have already exited are not included.
+     * @param base the CPU times at the start of the window
+     * @return the CPU time in nanoseconds
+     */
+    private static long getHostCpuNanos(Map<Long, Long> base) {
+        long total = 0;
+
+        for (Map.Entry<Long, Long> entry : getHostCpuTimes().entrySet()) {
+            total += entry.getValue() - base.getOrDefault(entry.getKey(), 0L);
+        }
+
+        return total;
+    }
+}
@@ -0,0 +1,276 @@
+package benchmark;
+
+import client.ClientConnection;
+import server.HostServer;
+import server.ServerConfig;
+import server.ServerMode;
+import server.ServerState;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load tests a {@link HostServer} by connecting many simulated clients over loopback at once.
+ * Every client registers, waits for {@link server.ServerCode#NEXT_SCREEN} and submits a source of a configurable size.
+ * Reports connect and submission latency percentiles, and the thread count and CPU time of the host.
+ * Host figures only cover platform threads, so virtual threads do not appear in them.
+ * Usage: {@code java benchmark.LoadTest [clients] [source bytes] [mode]}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class LoadTest {
+    private static final int DEFAULT_CLIENTS = 200;
+    private static final int DEFAULT_SOURCE_BYTES = 4096;
+    private static final long PHASE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+    /** Names of the simulated client threads, which are not counted as host threads */
+    private static final String CLIENT_THREAD_PREFIX = "LoadTest-Client-";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * main
+     * Runs the load test.
+     * @param args the optional number of clients, source size in bytes and server mode
+     * @throws Exception if the load test fails
+     */
+    public static void main(String[] args) throws Exception {
+        int numClients = DEFAULT_CLIENTS;
+        int sourceBytes = DEFAULT_SOURCE_BYTES;
+        ServerMode[] modes = ServerMode.values();
+
+        if (args.length > 0) {
+            numClients = Integer.parseInt(args[0]);
+        }
+
+        if (args.length > 1) {
+            sourceBytes = Integer.parseInt(args[1]);
+        }
+
+        if (args.length > 2) {
+            modes = new ServerMode[] { ServerMode.valueOf(args[2].toUpperCase()) };
+        }
+
+        if (THREADS.isThreadCpuTimeSupported()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+
+        System.out.printf("%d clients submitting %d bytes each%n", numClients, sourceBytes);
+        System.out.printf("%-10s %12s %12s %12s %12s %12s %14s %12s %12s%n",
+                "mode", "connect p50", "connect p99", "submit p50", "submit p90", "submit p99",
+                "host threads", "peak threads", "host cpu ms");
+
+        for (ServerMode mode : modes) {
+            run(mode, numClients, sourceBytes);
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * run
+     * Connects clients to a server in one mode, has every client submit, and prints the results.
+     * @param mode the server mode
+     * @param numClients the number of clients
+     * @param sourceBytes the size of each submission
+     * @throws IOException if an I/O error occurs
+     * @throws InterruptedException if interrupted while waiting for a phase to finish
+     */
+    private static void run(ServerMode mode, int numClients, int sourceBytes) throws IOException, InterruptedException {
+        int baseThreads = countHostThreads();
+        Map<Long, Long> baseCpu = getHostCpuTimes();
+        THREADS.resetPeakThreadCount();
+
+        ServerConfig config = new ServerConfig();
+        config.setMode(mode);
+
+        HostServer server = new HostServer(config);
+        Map<String, Long> received = new ConcurrentHashMap<>();
+        CountDownLatch submissions = new CountDownLatch(numClients);
+
+        // Submit listeners are not told which client submitted, so look for new submissions
+        server.onSubmit(() -> {
+            long now = System.nanoTime();
+
+            for (ClientConnection connection : server.getConnections()) {
+                if (connection.hasSubmitted() && (received.putIfAbsent(connection.getName(), now) == null)) {
+                    submissions.countDown();
+                }
+            }
+        });
+
+        server.serve();
+
+        long[] connectNanos = new long[numClients];
+        Map<String, Long> sent = new ConcurrentHashMap<>();
+        CountDownLatch connected = new CountDownLatch(numClients);
+        List<SimulatedClient> clients = new ArrayList<>();
+        List<Thread> clientThreads = new ArrayList<>();
+
+        // Every client runs on its own thread so they all connect at once
+        for (int i = 0; i < numClients; i++) {
+            int index = i;
+            SimulatedClient client = new SimulatedClient("localhost", server.getPort(), "Bot" + i);
+            String source = createSource(client.getName(), sourceBytes);
+
+            Thread thread = new Thread(() -> {
+                try {
+                    connectNanos[index] = client.connect();
+                    connected.countDown();
+
+                    client.awaitNextScreen();
+                    sent.put(client.getName(), client.submit(source));
+                    client.idle();
+                } catch (IOException e) {
+                    // Sockets are closed at the end of the run
+                    if (connected.getCount() > 0) {
+                        System.out.println(client.getName() + " failed: " + e.getMessage());
+                    }
+                }
+            }, CLIENT_THREAD_PREFIX + i);
+
+            clients.add(client);
+            clientThreads.add(thread);
+            thread.start();
+        }
+
+        // Connection phase
+        if (!connected.await(PHASE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            System.out.println(mode + ": only " + (numClients - connected.getCount()) + " clients connected");
+        }
+
+        int hostThreads = countHostThreads() - baseThreads;
+
+        // Submission phase
+        server.setState(ServerState.CORRESPONDING);
+
+        if (!submissions.await(PHASE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            System.out.println(mode + ": only " + received.size() + " submissions arrived");
+        }
+
+        long[] submitNanos = new long[received.size()];
+        int i = 0;
+
+        for (Map.Entry<String, Long> entry : received.entrySet()) {
+            submitNanos[i++] = entry.getValue() - sent.getOrDefault(entry.getKey(), entry.getValue());
+        }
+
+        Arrays.sort(connectNanos);
+        Arrays.sort(submitNanos);
+
+        // Latencies are in milliseconds
+        System.out.printf("%-10s %12.2f %12.2f %12.2f %12.2f %12.2f %14d %12d %12d%n",
+                mode,
+                percentile(connectNanos, 0.50),
+                percentile(connectNanos, 0.99),
+                percentile(submitNanos, 0.50),
+                percentile(submitNanos, 0.90),
+                percentile(submitNanos, 0.99),
+                hostThreads,
+                THREADS.getPeakThreadCount() - baseThreads - numClients,
+                getHostCpuMillis(baseCpu));
+
+        // Clean up
+        server.close();
+
+        for (SimulatedClient client : clients) {
+            client.close();
+        }
+
+        for (Thread thread : clientThreads) {
+            thread.join();
+        }
+
+        // Let handler threads exit before the next mode is measured
+        Thread.sleep(1000);
+    }
+
+    /**
+     * createSource
+     * Creates a player source padded with a comment to a size.
+     * @param name the name of the player
+     * @param sourceBytes the size of the source
+     * @return the source code
+     */
+    private static String createSource(String name, int sourceBytes) {
+        StringBuilder source = new StringBuilder("public class " + name + "Player {}\n//");
+
+        while (source.length() < sourceBytes) {
+            source.append('x');
+        }
+
+        return source.toString();
+    }
+
+    /**
+     * percentile
+     * Gets a percentile of sorted latencies using the nearest-rank method.
+     * @param sorted the latencies in nanoseconds, in ascending order
+     * @param fraction the percentile as a fraction between 0 and 1
+     * @return the percentile in milliseconds, or 0 if there are no latencies
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(fraction * sorted.length);
+
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    /**
+     * countHostThreads
+     * Counts the live platform threads which do not belong to simulated clients.
+     * @return the number of host threads
+     */
+    private static int countHostThreads() {
+        return getHostCpuTimes().size();
+    }
+
+    /**
+     * getHostCpuTimes
+     * Gets the CPU time of every live platform thread which does not belong to a simulated client.
+     * @return the CPU time in nanoseconds of each thread by id
+     */
+    private static Map<Long, Long> getHostCpuTimes() {
+        Map<Long, Long> cpuTimes = new HashMap<>();
+
+        for (ThreadInfo info : THREADS.getThreadInfo(THREADS.getAllThreadIds())) {
+            if ((info == null) || info.getThreadName().startsWith(CLIENT_THREAD_PREFIX)) {
+                continue;
+            }
+
+            cpuTimes.put(info.getThreadId(), Math.max(0, THREADS.getThreadCpuTime(info.getThreadId())));
+        }
+
+        return cpuTimes;
+    }
+
+    /**
+     * getHostCpuMillis
+     * Gets the CPU time used by host threads since a snapshot.
+     * Threads which have already exited are not included.
+     * @param base the CPU times at the start of the run
+     * @return the CPU time in milliseconds
+     */
+    private static long getHostCpuMillis(Map<Long, Long> base) {
+        long total = 0;
+
+        for (Map.Entry<Long, Long> entry : getHostCpuTimes().entrySet()) {
+            total += entry.getValue() - base.getOrDefault(entry.getKey(), 0L);
+        }
+
+        return TimeUnit.NANOSECONDS.toMillis(total);
+    }
+}
@@ -0,0 +1,171 @@
+package benchmark;
+
+import protocol.Frame;
+import protocol.FrameReader;
+import protocol.FrameWriter;
+import protocol.Protocol;
+import server.ServerCode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * A headless client which speaks the same protocol as {@link gui.client.ClientApplication}.
+ * Used by benchmarks to simulate players over loopback.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class SimulatedClient implements Closeable {
+    private final String host;
+    private final int port;
+    private final String name;
+
+    /** The lobby to join, or null for the default lobby */
+    private final String lobby;
+
+    private Socket socket;
+    private FrameReader input;
+    private FrameWriter output;
+
+    /**
+     * Constructs a {@link SimulatedClient} which joins the default lobby.
+     * @param host the host address
+     * @param port the host server port
+     * @param name the name to register under
+     */
+    SimulatedClient(String host, int port, String name) {
+        this(host, port, name, null);
+    }
+
+    /**
+     * Constructs a {@link SimulatedClient}.
+     * @param host the host address
+     * @param port the host server port
+     * @param name the name to register under
+     * @param lobby the lobby to join, or null for the default lobby
+     */
+    SimulatedClient(String host, int port, String name, String lobby) {
+        this.host = host;
+        this.port = port;
+        this.name = name;
+        this.lobby = lobby;
+    }
+
+    /**
+     * getName
+     * Gets the name the client registers under.
+     * @return the name
+     */
+    String getName() {
+        return this.name;
+    }
+
+    /**
+     * connect
+     * Opens the socket and registers the client's name.
+     * @return the time from opening the socket to being accepted in nanoseconds
+     * @throws IOException if an I/O error occurs or the host rejects the client
+     */
+    long connect() throws IOException {
+        long start = System.nanoTime();
+
+        this.socket = new Socket(this.host, this.port);
+        this.input = new FrameReader(this.socket.getInputStream());
+        this.output = new FrameWriter(this.socket.getOutputStream());
+
+        this.output.write(Protocol.hello());
+
+        if (this.lobby != null) {
+            this.output.write(new Frame(ServerCode.JOIN_LOBBY, this.lobby));
+        }
+
+        this.output.write(new Frame(ServerCode.REGISTER, this.name));
+
+        Frame response = this.input.read();
+
+        // Skip the host's answer to the offered features
+        if ((response != null) && (response.getType() == ServerCode.HELLO)) {
+            response = this.input.read();
+        }
+
+        if (response == null) {
+            throw new IOException("Host closed the connection of " + this.name);
+        }
+
+        if (response.getType() == ServerCode.DISCONNECT) {
+            throw new IOException(response.getText());
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * awaitNextScreen
+     * Answers heartbeats until the host sends {@link ServerCode#NEXT_SCREEN}.
+     * @throws IOException if an I/O error occurs or the host closes the connection first
+     */
+    void awaitNextScreen() throws IOException {
+        if (this.await(ServerCode.NEXT_SCREEN) == null) {
+            throw new IOException("Host closed the connection of " + this.name);
+        }
+    }
+
+    /**
+     * submit
+     * Sends a code submission.
+     * @param source the source code to submit
+     * @return the time the submission was sent, from {@link System#nanoTime()}
+     * @throws IOException if an I/O error occurs
+     */
+    long submit(String source) throws IOException {
+        long sent = System.nanoTime();
+        this.output.write(new Frame(ServerCode.SUBMISSION_FINISHED, source));
+
+        return sent;
+    }
+
+    /**
+     * idle
+     * Answers heartbeats until the host closes the connection.
+     * @throws IOException if an I/O error occurs
+     */
+    void idle() throws IOException {
+        this.await(null);
+    }
+
+    /**
+     * await
+     * Reads frames and answers heartbeats until a frame of a type arrives.
+     * @param type the frame type to wait for, or null to wait for the connection to close
+     * @return the frame, or null if the connection closed
+     * @throws IOException if an I/O error occurs
+     */
+    private Frame await(ServerCode type) throws IOException {
+        Frame frame;
+
+        while ((frame = this.input.read()) != null) {
+            if (frame.getType() == type) {
+                return frame;
+            }
+
+            if (frame.getType() == ServerCode.HEARTBEAT) {
+                this.output.write(frame);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * close
+     * Closes the client socket.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.socket != null) {
+            this.socket.close();
+        }
+    }
+}
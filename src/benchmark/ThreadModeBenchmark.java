@@ -0,0 +1,118 @@
+package benchmark;
+
+import server.HostServer;
+import server.ServerConfig;
+import server.ServerMode;
+import server.ServerState;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the thread cost of the {@link ServerMode#THREADED} and {@link ServerMode#VIRTUAL}
+ * host server modes by connecting many loopback clients to each.
+ * Thread counts are platform threads, so virtual threads do not appear in them.
+ * Usage: {@code java benchmark.ThreadModeBenchmark [clients]}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ThreadModeBenchmark {
+    private static final int DEFAULT_CLIENTS = 1000;
+    private static final String SUBMISSION = "public class Player {}";
+
+    /**
+     * main
+     * Runs the benchmark.
+     * @param args the optional number of clients
+     * @throws Exception if the benchmark fails
+     */
+    public static void main(String[] args) throws Exception {
+        int numClients = DEFAULT_CLIENTS;
+
+        if (args.length > 0) {
+            numClients = Integer.parseInt(args[0]);
+        }
+
+        System.out.printf("%-10s %8s %12s %12s %14s %12s%n",
+                "mode", "clients", "connect ms", "submit ms", "host threads", "peak threads");
+
+        for (ServerMode mode : new ServerMode[] { ServerMode.THREADED, ServerMode.VIRTUAL }) {
+            run(mode, numClients);
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * run
+     * Connects clients to a server in one mode, has every client submit, and prints the results.
+     * @param mode the server mode
+     * @param numClients the number of clients
+     * @throws IOException if an I/O error occurs
+     * @throws InterruptedException if interrupted while waiting for submissions
+     */
+    private static void run(ServerMode mode, int numClients) throws IOException, InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baseThreads = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        // Clients stay silent until the submission phase, so never expire them
+        ServerConfig config = new ServerConfig();
+        config.setMode(mode);
+        config.setHeartbeatTimeout(TimeUnit.MINUTES.toMillis(10));
+
+        HostServer server = new HostServer(config);
+        CountDownLatch submissions = new CountDownLatch(numClients);
+        server.onSubmit(submissions::countDown);
+        server.serve();
+
+        List<SimulatedClient> clients = new ArrayList<>();
+
+        // Connection phase
+        long start = System.nanoTime();
+
+        for (int i = 0; i < numClients; i++) {
+            SimulatedClient client = new SimulatedClient("localhost", server.getPort(), "Bot" + i);
+            client.connect();
+            clients.add(client);
+        }
+
+        long connectNanos = System.nanoTime() - start;
+        int hostThreads = threads.getThreadCount() - baseThreads;
+
+        // Submission phase
+        start = System.nanoTime();
+        server.setState(ServerState.CORRESPONDING);
+
+        for (SimulatedClient client : clients) {
+            client.awaitNextScreen();
+            client.submit(SUBMISSION);
+        }
+
+        submissions.await(1, TimeUnit.MINUTES);
+        long submitNanos = System.nanoTime() - start;
+
+        System.out.printf("%-10s %8d %12d %12d %14d %12d%n",
+                mode,
+                numClients,
+                TimeUnit.NANOSECONDS.toMillis(connectNanos),
+                TimeUnit.NANOSECONDS.toMillis(submitNanos),
+                hostThreads,
+                threads.getPeakThreadCount() - baseThreads);
+
+        // Clean up
+        server.close();
+
+        for (SimulatedClient client : clients) {
+            client.close();
+        }
+
+        // Let handler threads exit before the next mode is measured
+        Thread.sleep(1000);
+    }
+}
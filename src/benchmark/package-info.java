@@ -0,0 +1,6 @@
+/**
+ * A package for runnable benchmarks and load tests of the application.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package benchmark;
@@ -1,8 +1,15 @@
 package client;
 
+import game.Player;
+import protocol.ProtocolException;
+import protocol.SourcePatch;
+
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
+import java.util.Arrays;
 
 /**
  * Wraps a client socket without other client information.
@@ -10,10 +17,30 @@ import java.time.LocalTime;
  * @version 1.0 - January 7th 2024
  */
 public class ClientConnection {
-    private final Socket client;
-    private LocalTime submissionTime;
+    private volatile Socket client;
+    private volatile SocketChannel channel;
+    private volatile long lastSeen;
     private String name;
+
+    /** The submitted code and what is derived from it, which only change together while holding the lock */
+    private LocalTime submissionTime;
     private String code;
+    private byte[] codeHash;
+    private int codeSize;
+
+    /** The class compiled ahead of the game, and the hash of the code it was compiled from */
+    private Class<? extends Player> playerClass;
+    private byte[] playerClassHash;
+
+    /**
+     * Creates a connection without a socket, for a session restored after the host restarted,
+     * which gets its socket once the client reattaches.
+     */
+    public ClientConnection() {
+        this.client = null;
+        this.channel = null;
+        this.lastSeen = System.nanoTime();
+    }
 
     /**
      * Creates a connection wrapping a client socket.
@@ -21,6 +48,18 @@ public class ClientConnection {
      */
     public ClientConnection(Socket client) {
         this.client = client;
+        this.channel = null;
+        this.lastSeen = System.nanoTime();
+    }
+
+    /**
+     * Creates a connection wrapping a client socket channel.
+     * @param channel the client socket channel
+     */
+    public ClientConnection(SocketChannel channel) {
+        this.client = channel.socket();
+        this.channel = channel;
+        this.lastSeen = System.nanoTime();
     }
 
     /**
@@ -32,6 +71,16 @@ public class ClientConnection {
         return this.client;
     }
 
+    /**
+     * getChannel
+     * Gets the socket channel wrapped by this connection or
+     * null if the connection was created from a plain socket.
+     * @return the client socket channel
+     */
+    public SocketChannel getChannel() {
+        return this.channel;
+    }
+
     /**
      * getName
      * Gets the client's name.
@@ -47,20 +96,56 @@ public class ClientConnection {
      * null if the client has not submitted.
      * @return the code of the client
      */
-    public String getCode() {
+    public synchronized String getCode() {
         return this.code;
     }
 
+    /**
+     * getCodeHash
+     * Gets the SHA-256 hash of the client's submitted code or
+     * null if the client has not submitted.
+     * @return the hash of the code
+     */
+    public synchronized byte[] getCodeHash() {
+        return this.codeHash;
+    }
+
+    /**
+     * getCodeSize
+     * Gets the size of the client's submitted code as UTF-8.
+     * @return the size of the code in bytes, or 0 if the client has not submitted
+     */
+    public synchronized int getCodeSize() {
+        return this.codeSize;
+    }
+
     /**
      * getSubmissionTime
      * Gets the time of submission or
      * null if the client has not submitted.
      * @return the submission time of the client
      */
-    public LocalTime getSubmissionTime() {
+    public synchronized LocalTime getSubmissionTime() {
         return this.submissionTime;
     }
 
+    /**
+     * getLastSeen
+     * Gets when data was last received from the client.
+     * @return the {@link System#nanoTime()} of the last received data
+     */
+    public long getLastSeen() {
+        return this.lastSeen;
+    }
+
+    /**
+     * markSeen
+     * Records that data was just received from the client.
+     */
+    public void markSeen() {
+        this.lastSeen = System.nanoTime();
+    }
+
     /**
      * setName
      * Sets the name of the player.
@@ -76,34 +161,145 @@ public class ClientConnection {
      * @param code the new code of the player
      */
     public void setCode(String code) {
-        this.code = code;
-        this.submissionTime = LocalTime.now();
+        this.setCode(code, LocalTime.now());
+    }
+
+    /**
+     * setCode
+     * Sets the submitted code of the player and when it was submitted.
+     * @param code the new code of the player
+     * @param submissionTime when the code was submitted
+     */
+    public void setCode(String code, LocalTime submissionTime) {
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        byte[] hash = SourcePatch.hash(bytes);
+
+        synchronized (this) {
+            this.code = code;
+            this.codeHash = hash;
+            this.codeSize = bytes.length;
+            this.submissionTime = submissionTime;
+        }
+    }
+
+    /**
+     * updateCode
+     * Sets the submitted code of the player unless it is the same as the code already submitted,
+     * in which case the submission time is kept as well.
+     * @param code the new code of the player
+     * @return if the code changed
+     */
+    public boolean updateCode(String code) {
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        byte[] hash = SourcePatch.hash(bytes);
+
+        synchronized (this) {
+            if (Arrays.equals(hash, this.codeHash)) {
+                return false;
+            }
+
+            this.code = code;
+            this.codeHash = hash;
+            this.codeSize = bytes.length;
+            this.submissionTime = LocalTime.now();
+        }
+
+        return true;
+    }
+
+    /**
+     * patchCode
+     * Rebuilds a full source by applying a patch to the submitted code.
+     * The submitted code itself is left unchanged.
+     * @param patch the patch made against a previous submission
+     * @return the patched source, or null if the patch was not made against the submitted code
+     * @throws ProtocolException if the patch does not fit the submitted code
+     */
+    public String patchCode(SourcePatch patch) throws ProtocolException {
+        String code;
+
+        // Read together, so the patch is checked against the same source it is applied to
+        synchronized (this) {
+            code = this.code;
+
+            if ((code == null) || !patch.appliesTo(this.codeHash)) {
+                return null;
+            }
+        }
+
+        return patch.apply(code.getBytes(StandardCharsets.UTF_8));
     }
 
     /**
      * deleteCode
      * Deletes the user submitted code.
      */
-    public void deleteCode() {
+    public synchronized void deleteCode() {
         this.code = null;
+        this.codeHash = null;
+        this.codeSize = 0;
         this.submissionTime = null;
     }
 
+    /**
+     * getPlayerClass
+     * Gets the {@link Player} class compiled from the submitted code ahead of the game.
+     * @return the compiled class, or null if the submitted code has not been compiled
+     */
+    public synchronized Class<? extends Player> getPlayerClass() {
+        if ((this.playerClass == null) || !Arrays.equals(this.playerClassHash, this.codeHash)) {
+            return null;
+        }
+
+        return this.playerClass;
+    }
+
+    /**
+     * setPlayerClass
+     * Stores the {@link Player} class compiled from a submission,
+     * which is only used while that submission is still the submitted code.
+     * A class compiled from code which was already replaced is ignored.
+     * @param codeHash the hash of the code the class was compiled from
+     * @param playerClass the compiled class
+     */
+    public synchronized void setPlayerClass(byte[] codeHash, Class<? extends Player> playerClass) {
+        if (!Arrays.equals(codeHash, this.codeHash)) {
+            return;
+        }
+
+        this.playerClass = playerClass;
+        this.playerClassHash = codeHash;
+    }
+
     /**
      * hasSubmitted
      * Returns if the client has submitted their code.
      * @return if the client has submitted
      */
-    public boolean hasSubmitted() {
+    public synchronized boolean hasSubmitted() {
         return this.code != null;
     }
 
+    /**
+     * reattach
+     * Moves the socket of a new connection into this one,
+     * so a client which reconnected keeps its name and submission.
+     * @param transport the new connection of the client
+     */
+    public void reattach(ClientConnection transport) {
+        this.client = transport.client;
+        this.channel = transport.channel;
+        this.markSeen();
+    }
+
     /**
      * close
      * Closes the socket associated with this connection.
      * @throws IOException if an I/O error occurs when closing the socket
      */
     public void close() throws IOException {
-        this.client.close();
+        if (this.client != null) {
+            this.client.close();
+        }
     }
 }
@@ -0,0 +1,23 @@
+package function;
+
+import protocol.Frame;
+
+import java.io.IOException;
+
+/**
+ * Represents a callback function which handles a message from the host.
+ * This is a {@link FunctionalInterface} whose
+ * functional method is {@link #handle(Frame)}.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@FunctionalInterface
+public interface FrameHandler {
+    /**
+     * handle
+     * Handles a message from the host.
+     * @param frame the message
+     * @throws IOException if an I/O error occurs while responding to the message
+     */
+    void handle(Frame frame) throws IOException;
+}
@@ -0,0 +1,20 @@
+package function;
+
+import java.io.IOException;
+
+/**
+ * Represents a function which takes no arguments, returns no results and may fail with an I/O error.
+ * This is a {@link FunctionalInterface} whose
+ * functional method is {@link #execute()}.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@FunctionalInterface
+public interface IOProcedure {
+    /**
+     * execute
+     * Runs the procedure
+     * @throws IOException if an I/O error occurs
+     */
+    void execute() throws IOException;
+}
@@ -0,0 +1,390 @@
+package game;
+
+import client.ClientConnection;
+import game.actions.Move;
+import game.internal.entities.Currency;
+import game.internal.entities.GameObject;
+import loader.ClassCache;
+import loader.LoadReport;
+import loader.ObjectLoader;
+import loader.ObjectLoaderException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The game simulation, independent of how (or whether) it is displayed.
+ * {@link game.internal.assets.Assets} must be initialized before a game is created.
+ * @author Tommy Shan
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Game {
+    /** Game constants */
+    private static final int CYCLES_DAMAGE = 10;
+    private static final int CURRENCY_VARIANCE = 3;
+    private static final int MIN_CURRENCY = 4;
+
+    /** Map generation constants */
+    private static final int TILES_PER_PLAYER = 100;
+    private static final int MAX_HEIGHT = 40;
+    private static final int MIN_HEIGHT = 25;
+
+    private final Set<Player> players;
+    private final List<Player> playerStandings;
+    private final Set<Currency> currencies;
+
+    /** The number of every player which was loaded, and their names by number, as sent to spectators */
+    private final Map<Player, Integer> playerNumbers;
+    private final List<String> playerNames;
+
+    private final GameObject[][] map;
+    private int currentCycle;
+
+    /** The outcome of loading the players, whose class loaders are released with the game */
+    private LoadReport loadReport;
+
+    /**
+     * Constructs a {@link Game} and places every player which could be loaded on the map.
+     * @param clients the clients with submitted codes
+     * @param width the width of the map in tiles
+     * @param height the height of the map in tiles
+     * @param classCache the cache of classes compiled before, or null to compile every submission
+     */
+    public Game(Set<ClientConnection> clients, int width, int height, ClassCache classCache) {
+        this.map = new GameObject[height][width];
+        this.currentCycle = 1;
+
+        // Load players
+        this.players = new HashSet<>();
+
+        try (ObjectLoader objectLoader = new ObjectLoader(classCache)) {
+            this.loadReport = objectLoader.loadAll(clients, Runtime.getRuntime().availableProcessors());
+
+            for (Map.Entry<String, ObjectLoaderException> failure : this.loadReport.getFailures().entrySet()) {
+                System.out.println("Could not load " + failure.getKey() + "'s program: " + failure.getValue().getMessage());
+            }
+
+            this.players.addAll(this.loadReport.getPlayers());
+        } catch (IOException e) {
+            System.out.println("Failed to release the compiler for player submissions");
+        }
+
+        this.currencies = new HashSet<>();
+        this.playerStandings = new ArrayList<>();
+
+        this.playerNumbers = new HashMap<>();
+        this.playerNames = new ArrayList<>();
+
+        for (Player player : this.players) {
+            this.playerNumbers.put(player, this.playerNames.size());
+            this.playerNames.add(player.getName());
+        }
+
+        // Generate player locations
+        for (Player player : this.players) {
+            boolean validPosition = false;
+
+            while (!validPosition) {
+                int y = (int) (Math.random() * this.map.length);
+                int x = (int) (Math.random() * this.map[y].length);
+
+                if (this.map[y][x] == null) {
+                    this.map[y][x] = player;
+                    validPosition = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * getGridHeight
+     * Gets how many tiles tall the grid should be to fit every player in an area.
+     * @param numPlayers the number of players
+     * @param width the width of the area
+     * @param height the height of the area
+     * @return the grid height in tiles
+     */
+    public static int getGridHeight(int numPlayers, int width, int height) {
+        int gridHeight = (int) Math.floor(
+                Math.sqrt(
+                        numPlayers * TILES_PER_PLAYER * height / (double) width
+                )
+        );
+
+        if (gridHeight < MIN_HEIGHT) {
+            gridHeight = MIN_HEIGHT;
+        }
+
+        if (gridHeight > MAX_HEIGHT) {
+            gridHeight = MAX_HEIGHT;
+        }
+
+        return gridHeight;
+    }
+
+    /**
+     * getMap
+     * Gets the game map, indexed by row then column.
+     * @return the game map
+     */
+    public GameObject[][] getMap() {
+        return this.map;
+    }
+
+    /**
+     * getState
+     * Copies the map and the health and currency of every player for spectators.
+     * @return the current game state
+     */
+    public GameState getState() {
+        int height = this.map.length;
+        int width = this.map[0].length;
+
+        int[] occupants = new int[width * height];
+        int[] health = new int[width * height];
+        int[] currency = new int[width * height];
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                GameObject currentObject = this.map[y][x];
+                int tile = (y * width) + x;
+
+                if (currentObject instanceof Player) {
+                    Player player = (Player) currentObject;
+
+                    occupants[tile] = this.playerNumbers.get(player);
+                    health[tile] = Math.max(player.getHealth(), 0);
+                    currency[tile] = Math.max(player.getCurrency(), 0);
+                } else if (currentObject instanceof Currency) {
+                    occupants[tile] = GameState.CURRENCY;
+                } else {
+                    occupants[tile] = GameState.EMPTY;
+                }
+            }
+        }
+
+        return new GameState(width, height, this.currentCycle, Collections.unmodifiableList(this.playerNames), occupants, health, currency);
+    }
+
+    /**
+     * getCurrentCycle
+     * Gets the number of the update cycle which runs next.
+     * @return the current cycle
+     */
+    public int getCurrentCycle() {
+        return this.currentCycle;
+    }
+
+    /**
+     * isFinished
+     * Checks if at most one player is left.
+     * @return if the game is finished
+     */
+    public boolean isFinished() {
+        return this.players.size() <= 1;
+    }
+
+    /**
+     * getStandings
+     * Gets the names of the players in the order they were eliminated, so the winner is last.
+     * Players who are still alive are listed after every eliminated player.
+     * @return the ordered list of standings
+     */
+    public List<String> getStandings() {
+        List<Player> standings = new ArrayList<>(this.playerStandings);
+
+        for (Player player : this.players) {
+            if (!standings.contains(player)) {
+                standings.add(player);
+            }
+        }
+
+        return standings
+                .stream()
+                .map(Player::getName)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * release
+     * Drops every player once the game is over, and releases the class loaders created for them,
+     * so their classes are unloaded instead of piling up over many games.
+     * The standings must be read first, as the game holds no players afterwards.
+     */
+    public void release() {
+        this.players.clear();
+        this.playerStandings.clear();
+        this.playerNumbers.clear();
+
+        for (GameObject[] row : this.map) {
+            Arrays.fill(row, null);
+        }
+
+        if (this.loadReport != null) {
+            this.loadReport.release();
+            this.loadReport = null;
+        }
+    }
+
+    /**
+     * runUpdate
+     * Runs an update cycle on the map.
+     */
+    public void runUpdate() {
+        if (this.isFinished()) {
+            return;
+        }
+
+        this.generateCurrency();
+
+        // If players should be damaged this cycle
+        boolean damagePlayers = this.currentCycle % CYCLES_DAMAGE == 0;
+
+        Set<Player> movedPlayers = new HashSet<>();
+
+        // Iterate through map
+        for (int y = 0; y < this.map.length; y++) {
+            for (int x = 0; x < this.map[y].length; x++) {
+                GameObject currentObject = this.map[y][x];
+
+                if (currentObject instanceof Player) {
+                    Player player = (Player) currentObject;
+
+                    // If player has already been moved
+                    if (movedPlayers.contains(player)) {
+                        continue;
+                    }
+
+                    movedPlayers.add(player);
+
+                    if (damagePlayers) {
+                        player.setHealth(player.getHealth() - 1);
+                    }
+
+                    // Player dies
+                    if (player.getHealth() == 0) {
+                        this.map[y][x] = null;
+                        this.players.remove(player);
+                        this.playerStandings.add(player);
+                        continue;
+                    }
+
+                    // Call player cycle method
+                    Data data = new Data(this.map, player, this.players.size(), this.currencies.size(), x, y);
+                    Shop shop = new Shop(player);
+
+                    try {
+                        player.update(data, shop);
+                    } catch (RuntimeException e) {
+                        System.out.println("An error occurred in " + player.getName() + "'s player");
+                    } catch (LinkageError e) {
+                        // A class the player needs cannot be loaded, so it would fail every cycle
+                        System.out.println(player.getName() + "'s player was eliminated, as it could not be linked: " + e);
+                        this.map[y][x] = null;
+                        this.players.remove(player);
+                        this.playerStandings.add(player);
+                        continue;
+                    }
+
+                    // Move
+                    this.movePlayer(player, x, y);
+                }
+            }
+        }
+
+        this.currentCycle++;
+    }
+
+    /**
+     * tick
+     * Advances the animation of every object on the map.
+     */
+    public void tick() {
+        for (GameObject[] gameObjects : this.map) {
+            for (GameObject currentObject : gameObjects) {
+                if (currentObject != null) {
+                    currentObject.tick();
+                }
+            }
+        }
+    }
+
+    /**
+     * generateCurrency
+     * Randomly generates currency throughout the map.
+     */
+    public void generateCurrency() {
+        int variance = ((int) (Math.random() * 2 * CURRENCY_VARIANCE)) - CURRENCY_VARIANCE;
+        int numCurrency = Math.max(this.players.size() + variance, MIN_CURRENCY);
+
+        for (int i = 0; i < numCurrency; i++) {
+            int y = (int) (Math.random() * this.map.length);
+            int x = (int) (Math.random() * this.map[y].length);
+
+            // Adds currency only if space is empty
+            if (this.map[y][x] == null) {
+                this.map[y][x] = new Currency();
+                this.currencies.add((Currency) this.map[y][x]);
+            }
+        }
+    }
+
+    /**
+     * movePlayer
+     * Moves the player on the map.
+     * @param player the player to move
+     * @param x the x coordinate of the location of the player
+     * @param y the y coordinate of the location of the player
+     */
+    public void movePlayer(Player player, int x, int y) {
+        Move move = player.getMove();
+
+        if (move == null) {
+            return;
+        }
+
+        // Move player if possible
+        int newY = y + move.getDeltaY();
+        int newX = x + move.getDeltaX();
+
+        if ((newY < 0) || (newY >= this.map.length)) {
+            newY = y;
+        }
+
+        if ((newX < 0) || (newX >= this.map[newY].length)) {
+            newX = x;
+        }
+
+        GameObject newObject = this.map[newY][newX];
+
+        boolean movePlayer = true;
+
+        // Collisions
+        if (player != newObject) {
+            if (newObject instanceof Currency) {
+                player.setCurrency(player.getCurrency() + 1);
+                this.currencies.remove(newObject);
+            } else if (newObject instanceof Player) {
+                Player enemy = (Player) newObject;
+                player.fight(enemy);
+
+                movePlayer = false;
+            }
+        }
+
+        // Move player
+        if (movePlayer) {
+            this.map[y][x] = null;
+            this.map[newY][newX] = player;
+        }
+    }
+}
@@ -1,12 +1,9 @@
 package game;
 
 import client.ClientConnection;
-import game.actions.Move;
 import game.internal.assets.Assets;
-import game.internal.entities.Currency;
 import game.internal.entities.GameObject;
-import loader.ObjectLoader;
-import loader.ObjectLoaderException;
+import loader.ClassCache;
 
 import javax.swing.JPanel;
 import java.awt.Dimension;
@@ -14,13 +11,11 @@ import java.awt.Graphics;
 import java.awt.Image;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * A Swing component responsible for managing and displaying the game.
@@ -29,29 +24,18 @@ import java.util.stream.Collectors;
  * @version 1.0 - January 8th 2024
  */
 public class GamePanel extends JPanel {
-    /** Game constants */
+    /** Game loop constants */
     private static final int TICKS_PER_UPDATE = 8;
     private static final int MS_PER_TICK = 100;
-    private static final int CYCLES_DAMAGE = 10;
-    private static final int CURRENCY_VARIANCE = 3;
-    private static final int MIN_CURRENCY = 4;
-
-    /** Map generation constants */
-    private static final int TILES_PER_PLAYER = 100;
-    private static final int MAX_HEIGHT = 40;
-    private static final int MIN_HEIGHT = 25;
 
     private final Timer gameLoop;
     private final Consumer<List<String>> onWin;
 
-    private final Set<Player> players;
-    private final List<Player> playerStandings;
-    private final Set<Currency> currencies;
+    /** Functions to call with the game state after every update cycle */
+    private final List<Consumer<GameState>> onUpdateSubscribers;
 
+    private final Game game;
     private final int gridSize;
-    private int currentCycle;
-
-    private final GameObject[][] map;
     private final Image[][] mapTiles;
 
     /**
@@ -59,31 +43,19 @@ public class GamePanel extends JPanel {
      * @param clients the clients with submitted codes
      * @param panelSize the size that the panel will eventually occupy.
      *                  Used to generate the map
+     * @param classCache the cache of classes compiled before, or null to compile every submission
      * @param onWin the callback function which is called when the game is won
      */
-    public GamePanel(Set<ClientConnection> clients, Dimension panelSize, Consumer<List<String>> onWin) {
+    public GamePanel(Set<ClientConnection> clients, Dimension panelSize, ClassCache classCache, Consumer<List<String>> onWin) {
         this.onWin = onWin;
+        this.onUpdateSubscribers = new ArrayList<>();
 
         // Game map dimensions
-        int gridHeight = (int) Math.floor(
-                Math.sqrt(
-                        clients.size() * TILES_PER_PLAYER * panelSize.height / (double) panelSize.width
-                )
-        );
-
-        if (gridHeight < MIN_HEIGHT) {
-            gridHeight = MIN_HEIGHT;
-        }
-
-        if (gridHeight > MAX_HEIGHT) {
-            gridHeight = MAX_HEIGHT;
-        }
+        int gridHeight = Game.getGridHeight(clients.size(), panelSize.width, panelSize.height);
 
         this.gridSize = panelSize.height / gridHeight;
         int gridWidth = panelSize.width / this.gridSize;
-        this.map = new GameObject[gridHeight - 2][gridWidth];
         this.mapTiles = new Image[gridHeight - 2][gridWidth];
-        this.currentCycle = 1;
 
         this.gameLoop = new Timer();
 
@@ -95,32 +67,7 @@ public class GamePanel extends JPanel {
         }
 
         // Load players
-        ObjectLoader objectLoader;
-
-        try {
-            objectLoader = new ObjectLoader();
-        } catch (IOException e) {
-            System.out.println("Failed to open temporary directory for player submissions");
-            throw new RuntimeException(e);
-        }
-
-        this.players = new HashSet<>();
-
-        for (ClientConnection client : clients) {
-            Player player;
-
-            try {
-                player = objectLoader.load(client);
-            } catch (IOException | ObjectLoaderException e) {
-                System.out.println("Could not load " + client.getName() + "'s program.");
-                continue;
-            }
-
-            this.players.add(player);
-        }
-
-        this.currencies = new HashSet<>();
-        this.playerStandings = new ArrayList<>();
+        this.game = new Game(clients, gridWidth, gridHeight - 2, classCache);
 
         // Generate map tiles
         for (int y = 0; y < this.mapTiles.length; y++) {
@@ -129,30 +76,27 @@ public class GamePanel extends JPanel {
             }
         }
 
-        // Generate player locations
-        for (Player player : this.players) {
-            boolean validPosition = false;
-
-            while (!validPosition) {
-                int y = (int) (Math.random() * this.map.length);
-                int x = (int) (Math.random() * this.map[y].length);
-
-                if (this.map[y][x] == null) {
-                    this.map[y][x] = player;
-                    validPosition = true;
-                }
-            }
-        }
-
         // Swing Setup
         this.setIgnoreRepaint(true);
     }
 
+    /**
+     * onUpdate
+     * Adds a listener function to call with the game state after every update cycle,
+     * starting with the state before the first cycle once the game starts.
+     * Listeners must be added before the game starts.
+     * @param subscriber the callback function
+     */
+    public void onUpdate(Consumer<GameState> subscriber) {
+        this.onUpdateSubscribers.add(subscriber);
+    }
+
     /**
      * start
      * Starts the game.
      */
     public void start() {
+        this.notifyUpdate();
         this.gameLoop.schedule(new GameLoopTask(), 0, MS_PER_TICK);
     }
 
@@ -161,160 +105,44 @@ public class GamePanel extends JPanel {
      * Runs an update cycle on the map
      */
     public void runUpdate() {
-        this.generateCurrency();
-
-        // If players should be damaged this cycle
-        boolean damagePlayers = this.currentCycle % CYCLES_DAMAGE == 0;
-
-        Set<Player> movedPlayers = new HashSet<>();
-
-        // Iterate through map
-        for (int y = 0; y < this.map.length; y++) {
-            for (int x = 0; x < this.map[y].length; x++) {
-                GameObject currentObject = this.map[y][x];
-
-                if (currentObject instanceof Player) {
-                    Player player = (Player) currentObject;
-
-                    // If player has already been moved
-                    if (movedPlayers.contains(player)) {
-                        continue;
-                    }
-
-                    movedPlayers.add(player);
-
-                    if (damagePlayers) {
-                        player.setHealth(player.getHealth() - 1);
-                    }
-
-                    // Player dies
-                    if (player.getHealth() == 0) {
-                        this.map[y][x] = null;
-                        this.players.remove(player);
-                        this.playerStandings.add(player);
-                        continue;
-                    }
-
-                    // Call player cycle method
-                    Data data = new Data(this.map, player, this.players.size(), this.currencies.size(), x, y);
-                    Shop shop = new Shop(player);
-
-                    try {
-                        player.update(data, shop);
-                    } catch (RuntimeException e) {
-                        System.out.println("An error occurred in " + player.getName() + "'s player");
-                    }
-
-                    // Move
-                    this.movePlayer(player, x, y);
-                }
-            }
-        }
+        this.game.runUpdate();
+        this.notifyUpdate();
 
         // Player standings
-        if (this.players.size() <= 1) {
-            this.playerStandings.addAll(this.players);
-
-            List<String> playerNames = this.playerStandings
-                    .stream()
-                    .map(Player::getName)
-                    .collect(Collectors.toList());
-
+        if (this.game.isFinished()) {
             this.gameLoop.cancel();
 
-            this.onWin.accept(playerNames);
-            return;
+            this.onWin.accept(this.game.getStandings());
+            this.game.release();
         }
-
-        this.currentCycle++;
     }
 
     /**
-     * runTick
-     * Runs an animation frame (a tick).
-     * An animation frame is NOT the same as an update cycle.
-     * Animation frames occur more often to create a smoother animation.
+     * notifyUpdate
+     * Calls every update listener with the current game state.
      */
-    public void runTick() {
-        for (GameObject[] gameObjects : this.map) {
-            for (GameObject currentObject : gameObjects) {
-                if (currentObject != null) {
-                    currentObject.tick();
-                }
-            }
+    private void notifyUpdate() {
+        if (this.onUpdateSubscribers.isEmpty()) {
+            return;
         }
 
-        repaint();
-    }
+        GameState state = this.game.getState();
 
-    /**
-     * generateCurrency
-     * Randomly generates currency throughout the map.
-     */
-    public void generateCurrency() {
-        int variance = ((int) (Math.random() * 2 * CURRENCY_VARIANCE)) - CURRENCY_VARIANCE;
-        int numCurrency = Math.max(this.players.size() + variance, MIN_CURRENCY);
-
-        for (int i = 0; i < numCurrency; i++) {
-            int y = (int) (Math.random() * this.map.length);
-            int x = (int) (Math.random() * this.map[y].length);
-
-            // Adds currency only if space is empty
-            if (this.map[y][x] == null) {
-                this.map[y][x] = new Currency();
-                this.currencies.add((Currency) this.map[y][x]);
-            }
+        for (Consumer<GameState> subscriber : this.onUpdateSubscribers) {
+            subscriber.accept(state);
         }
     }
 
     /**
-     * movePlayer
-     * Moves the player on the map.
-     * @param player the player to move
-     * @param x the x coordinate of the location of the player
-     * @param y the y coordinate of the location of the player
+     * runTick
+     * Runs an animation frame (a tick).
+     * An animation frame is NOT the same as an update cycle.
+     * Animation frames occur more often to create a smoother animation.
      */
-    public void movePlayer(Player player, int x, int y) {
-        Move move = player.getMove();
-
-        if (move == null) {
-            return;
-        }
-
-        // Move player if possible
-        int newY = y + move.getDeltaY();
-        int newX = x + move.getDeltaX();
-
-        if ((newY < 0) || (newY >= this.map.length)) {
-            newY = y;
-        }
-
-        if ((newX < 0) || (newX >= this.map[newY].length)) {
-            newX = x;
-        }
-
-        GameObject newObject = this.map[newY][newX];
-
-        boolean movePlayer = true;
-
-        // Collisions
-        if (player != newObject) {
-            if (newObject instanceof Currency) {
-                player.setCurrency(player.getCurrency() + 1);
-                this.currencies.remove(newObject);
-            } else if (newObject instanceof Player) {
-                Player enemy = (Player) newObject;
-                player.fight(enemy);
-
-                movePlayer = false;
-            }
-        }
+    public void runTick() {
+        this.game.tick();
 
-        // Move player
-        if (movePlayer) {
-            this.map[y][x] = null;
-            this.map[newY][newX] = player;
-        }
+        repaint();
     }
 
     /**
@@ -326,9 +154,11 @@ public class GamePanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
+        GameObject[][] map = this.game.getMap();
+
         // Draw background tiles
-        for (int y = 0; y < this.map.length; y++) {
-            for (int x = 0; x < this.map[y].length; x++) {
+        for (int y = 0; y < map.length; y++) {
+            for (int x = 0; x < map[y].length; x++) {
                 int xCoord = x * this.gridSize;
                 int yCoord = y * this.gridSize;
 
@@ -337,9 +167,9 @@ public class GamePanel extends JPanel {
         }
 
         // Draw game objects
-        for (int y = 0; y < this.map.length; y++) {
-            for (int x = 0; x < this.map[y].length; x++) {
-                GameObject currentObject = this.map[y][x];
+        for (int y = 0; y < map.length; y++) {
+            for (int x = 0; x < map[y].length; x++) {
+                GameObject currentObject = map[y][x];
 
                 int xCoord = x * this.gridSize;
                 int yCoord = y * this.gridSize;
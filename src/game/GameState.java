@@ -0,0 +1,385 @@
+package game;
+
+import protocol.ProtocolException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of what a spectator needs to draw one cycle of a {@link Game}:
+ * the occupant of every tile, and the health and currency of every player.
+ * States are sent as a keyframe once, then as deltas which hold only the tiles
+ * that changed since the previous cycle, so a cycle in which a few players move
+ * costs a few bytes per player rather than the whole map.
+ * Every number is written as an unsigned variable-length integer of 7 bits per byte.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public final class GameState {
+    /** Occupant of an empty tile */
+    public static final int EMPTY = -1;
+
+    /** Occupant of a tile holding currency, while players are numbered from 0 */
+    public static final int CURRENCY = -2;
+
+    /** The largest map accepted from the host, in tiles */
+    private static final int MAX_TILES = 1 << 20;
+
+    private final int width;
+    private final int height;
+    private final int cycle;
+
+    /** Player names, indexed by player number */
+    private final List<String> names;
+
+    /** Tile contents, indexed by row then column */
+    private final int[] occupants;
+    private final int[] health;
+    private final int[] currency;
+
+    /**
+     * Constructs a {@link GameState}.
+     * @param width the width of the map in tiles
+     * @param height the height of the map in tiles
+     * @param cycle the number of the update cycle which runs next
+     * @param names the player names, indexed by player number
+     * @param occupants the occupant of every tile
+     * @param health the health of the player on every tile
+     * @param currency the currency of the player on every tile
+     */
+    GameState(int width, int height, int cycle, List<String> names, int[] occupants, int[] health, int[] currency) {
+        this.width = width;
+        this.height = height;
+        this.cycle = cycle;
+        this.names = names;
+        this.occupants = occupants;
+        this.health = health;
+        this.currency = currency;
+    }
+
+    /**
+     * getWidth
+     * Gets the width of the map.
+     * @return the width in tiles
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * getHeight
+     * Gets the height of the map.
+     * @return the height in tiles
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * getCycle
+     * Gets the number of the update cycle which runs after this state.
+     * @return the cycle
+     */
+    public int getCycle() {
+        return this.cycle;
+    }
+
+    /**
+     * getOccupant
+     * Gets what is on a tile.
+     * @param x the column of the tile
+     * @param y the row of the tile
+     * @return the player number, {@link #CURRENCY} or {@link #EMPTY}
+     */
+    public int getOccupant(int x, int y) {
+        return this.occupants[(y * this.width) + x];
+    }
+
+    /**
+     * getHealth
+     * Gets the health of the player on a tile.
+     * @param x the column of the tile
+     * @param y the row of the tile
+     * @return the health, or 0 if no player is on the tile
+     */
+    public int getHealth(int x, int y) {
+        return this.health[(y * this.width) + x];
+    }
+
+    /**
+     * getCurrency
+     * Gets the currency of the player on a tile.
+     * @param x the column of the tile
+     * @param y the row of the tile
+     * @return the currency, or 0 if no player is on the tile
+     */
+    public int getCurrency(int x, int y) {
+        return this.currency[(y * this.width) + x];
+    }
+
+    /**
+     * getName
+     * Gets the name of a player.
+     * @param player the player number
+     * @return the player name
+     */
+    public String getName(int player) {
+        return this.names.get(player);
+    }
+
+    /**
+     * encodeKeyframe
+     * Encodes the whole state, which a spectator can draw without any earlier state.
+     * @return the encoded keyframe
+     */
+    public byte[] encodeKeyframe() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writeVarint(output, this.width);
+        writeVarint(output, this.height);
+        writeVarint(output, this.cycle);
+        writeVarint(output, this.names.size());
+
+        for (String name : this.names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            writeVarint(output, bytes.length);
+            output.write(bytes, 0, bytes.length);
+        }
+
+        // A keyframe is a delta against an empty map
+        this.writeChanges(output, null);
+
+        return output.toByteArray();
+    }
+
+    /**
+     * encodeDelta
+     * Encodes the tiles which changed since an earlier state of the same game.
+     * @param previous the earlier state
+     * @return the encoded delta
+     */
+    public byte[] encodeDelta(GameState previous) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writeVarint(output, previous.cycle);
+        writeVarint(output, this.cycle);
+        this.writeChanges(output, previous);
+
+        return output.toByteArray();
+    }
+
+    /**
+     * decodeKeyframe
+     * Decodes a state encoded by {@link #encodeKeyframe()}.
+     * @param keyframe the encoded keyframe
+     * @return the state
+     * @throws ProtocolException if the keyframe is malformed
+     */
+    public static GameState decodeKeyframe(byte[] keyframe) throws ProtocolException {
+        ByteBuffer input = ByteBuffer.wrap(keyframe);
+
+        try {
+            int width = readVarint(input);
+            int height = readVarint(input);
+
+            if ((width == 0) || (height == 0) || ((long) width * height > MAX_TILES)) {
+                throw new ProtocolException("Map of " + width + " by " + height + " tiles out of range");
+            }
+
+            int cycle = readVarint(input);
+            int numNames = readVarint(input);
+
+            if (numNames > width * height) {
+                throw new ProtocolException("More players than tiles");
+            }
+
+            List<String> names = new ArrayList<>(numNames);
+
+            for (int i = 0; i < numNames; i++) {
+                int length = readVarint(input);
+
+                if (length > input.remaining()) {
+                    throw new ProtocolException("Player name overruns the keyframe");
+                }
+
+                byte[] bytes = new byte[length];
+                input.get(bytes);
+                names.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            int[] occupants = new int[width * height];
+            Arrays.fill(occupants, EMPTY);
+
+            GameState empty = new GameState(
+                    width, height, cycle, Collections.unmodifiableList(names),
+                    occupants, new int[width * height], new int[width * height]
+            );
+
+            return empty.readChanges(input, cycle);
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Truncated keyframe");
+        }
+    }
+
+    /**
+     * apply
+     * Applies a delta encoded by {@link #encodeDelta(GameState)}.
+     * @param delta the encoded delta
+     * @return the new state, or null if the delta is not based on this state
+     * @throws ProtocolException if the delta is malformed
+     */
+    public GameState apply(byte[] delta) throws ProtocolException {
+        ByteBuffer input = ByteBuffer.wrap(delta);
+
+        try {
+            int baseCycle = readVarint(input);
+            int cycle = readVarint(input);
+
+            // A delta was missed, so the spectator needs a new keyframe
+            if (baseCycle != this.cycle) {
+                return null;
+            }
+
+            return this.readChanges(input, cycle);
+        } catch (BufferUnderflowException e) {
+            throw new ProtocolException("Truncated delta");
+        }
+    }
+
+    /**
+     * writeChanges
+     * Writes every tile which differs from an earlier state as its distance from the previous
+     * changed tile followed by its contents.
+     * @param output the stream to write to
+     * @param previous the earlier state, or null to compare against an empty map
+     */
+    private void writeChanges(ByteArrayOutputStream output, GameState previous) {
+        List<Integer> changed = new ArrayList<>();
+
+        for (int i = 0; i < this.occupants.length; i++) {
+            boolean same;
+
+            if (previous == null) {
+                same = this.occupants[i] == EMPTY;
+            } else {
+                same = (this.occupants[i] == previous.occupants[i])
+                        && (this.health[i] == previous.health[i])
+                        && (this.currency[i] == previous.currency[i]);
+            }
+
+            if (!same) {
+                changed.add(i);
+            }
+        }
+
+        writeVarint(output, changed.size());
+
+        int lastTile = -1;
+
+        for (int tile : changed) {
+            writeVarint(output, tile - lastTile - 1);
+            writeVarint(output, this.occupants[tile] - CURRENCY);
+
+            if (this.occupants[tile] >= 0) {
+                writeVarint(output, this.health[tile]);
+                writeVarint(output, this.currency[tile]);
+            }
+
+            lastTile = tile;
+        }
+    }
+
+    /**
+     * readChanges
+     * Reads tiles written by {@link #writeChanges(ByteArrayOutputStream, GameState)} into a copy of this state.
+     * @param input the buffer to read from
+     * @param cycle the cycle of the new state
+     * @return the new state
+     * @throws ProtocolException if a tile or player is out of range
+     */
+    private GameState readChanges(ByteBuffer input, int cycle) throws ProtocolException {
+        int[] occupants = this.occupants.clone();
+        int[] health = this.health.clone();
+        int[] currency = this.currency.clone();
+
+        int numChanges = readVarint(input);
+        long tile = -1;
+
+        for (int i = 0; i < numChanges; i++) {
+            tile += (long) readVarint(input) + 1;
+
+            if (tile >= occupants.length) {
+                throw new ProtocolException("Tile " + tile + " out of range");
+            }
+
+            int occupant = readVarint(input) + CURRENCY;
+
+            if (occupant >= this.names.size()) {
+                throw new ProtocolException("Player " + occupant + " out of range");
+            }
+
+            int index = (int) tile;
+            occupants[index] = occupant;
+            health[index] = 0;
+            currency[index] = 0;
+
+            if (occupant >= 0) {
+                health[index] = readVarint(input);
+                currency[index] = readVarint(input);
+            }
+        }
+
+        if (input.hasRemaining()) {
+            throw new ProtocolException("Unexpected bytes after the last tile");
+        }
+
+        return new GameState(this.width, this.height, cycle, this.names, occupants, health, currency);
+    }
+
+    /**
+     * writeVarint
+     * Writes a non-negative number in as few bytes as it needs.
+     * @param output the stream to write to
+     * @param value the number
+     */
+    private static void writeVarint(ByteArrayOutputStream output, int value) {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        output.write(value);
+    }
+
+    /**
+     * readVarint
+     * Reads a number written by {@link #writeVarint(ByteArrayOutputStream, int)}.
+     * @param input the buffer to read from
+     * @return the number
+     * @throws ProtocolException if the number does not fit in a non-negative int
+     */
+    private static int readVarint(ByteBuffer input) throws ProtocolException {
+        int value = 0;
+
+        for (int shift = 0; shift < 32; shift += 7) {
+            int current = input.get();
+            value |= (current & 0x7F) << shift;
+
+            if ((current & 0x80) == 0) {
+                if (value < 0) {
+                    throw new ProtocolException("Number out of range");
+                }
+
+                return value;
+            }
+        }
+
+        throw new ProtocolException("Number out of range");
+    }
+}
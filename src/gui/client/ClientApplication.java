@@ -1,18 +1,29 @@
 package gui.client;
 
 import client.ClientConnection;
-import function.Procedure;
+import function.IOProcedure;
+import game.GameState;
+import protocol.Compression;
+import protocol.Frame;
+import protocol.FrameReader;
+import protocol.FrameWriter;
+import protocol.Protocol;
+import protocol.SourcePatch;
 import server.ServerCode;
 import gui.Const;
 import gui.components.MultiScreenFrame;
 
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.net.Socket;
-import java.net.SocketException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Client GUI application for connecting to the host
@@ -20,11 +31,36 @@ import java.net.SocketException;
  * @version 1.0 - December 23rd 2023
  */
 public class ClientApplication {
+    /** How long to keep trying to resume a dropped connection, in milliseconds */
+    private static final long RECONNECT_WINDOW = 20000;
+    private static final long RECONNECT_DELAY = 500;
+
     private final MultiScreenFrame frame;
 
     private ClientConnection client;
-    private InputStreamReader input;
-    private OutputStreamWriter output;
+    private volatile FrameReader input;
+    private volatile FrameWriter output;
+
+    /** Reads every message from the host for as long as the application is connected */
+    private MessageDispatcher dispatcher;
+
+    /** Writes frames sent from the Swing thread, which must not wait on the socket or a reconnect */
+    private final ExecutorService sender;
+
+    /** Where to reconnect to, and the token which resumes the session */
+    private String ip;
+    private int port;
+    private String resumeToken;
+    private volatile boolean closed;
+
+    /** The optional protocol features the host agreed to */
+    private volatile int features;
+
+    /** The last source the host accepted, which later submissions are sent as patches against */
+    private String acceptedSource;
+
+    /** The last source sent, which becomes accepted once the host confirms its hash */
+    private String pendingSource;
 
     /**
      * Constructs a {@link ClientConnection}
@@ -35,6 +71,12 @@ public class ClientApplication {
         this.frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.frame.setSize(Const.FRAME_WIDTH, Const.FRAME_HEIGHT);
         this.frame.getContentPane().setBackground(Const.PRIMARY_COLOR);
+
+        this.sender = Executors.newSingleThreadExecutor((task) -> {
+            Thread thread = new Thread(task, "ClientApplication-Sender");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -62,31 +104,123 @@ public class ClientApplication {
         }
 
         // Access I/O streams
-        Socket clientSocket = this.client.getSocket();;
+        Socket clientSocket = this.client.getSocket();
         clientSocket.setSoTimeout(2000);
-        this.input = new InputStreamReader(clientSocket.getInputStream());
-        this.output = new OutputStreamWriter(clientSocket.getOutputStream());
+        this.input = new FrameReader(clientSocket.getInputStream());
+        this.output = new FrameWriter(clientSocket.getOutputStream());
 
         // Attempt to write name to host
-        this.output.write(name);
-        this.output.write('\n');
-        this.output.flush();
+        this.output.write(Protocol.hello());
+        this.output.write(new Frame(ServerCode.REGISTER, name));
 
-        int c = this.input.read();
+        Frame response = this.readResponse(this.input);
 
-        if (c == ServerCode.DISCONNECT.ordinal()) {
+        if ((response == null) || (response.getType() != ServerCode.ACCEPTED)) {
             this.close();
-            throw new IllegalArgumentException("Name '" + name + "' taken");
+
+            if ((response != null) && (response.getType() == ServerCode.DISCONNECT)) {
+                throw new IllegalArgumentException(response.getText());
+            }
+
+            throw new IOException("Host did not accept the connection");
         }
 
         this.client.setName(name);
+        this.ip = ip;
+        this.port = port;
+        this.resumeToken = response.getText();
+
+        // Watch the game once it starts if the host streams it
+        if ((this.features & Protocol.FEATURE_SPECTATE) != 0) {
+            this.output.write(new Frame(ServerCode.SPECTATE));
+        }
 
         // Valid name -> next panel
         this.frame.switchScreen(new WaitingPanel());
 
-        // Waits for the host to start the game
-        NextScreenThread waitingThread = new NextScreenThread(this::endWaiting);
-        waitingThread.start();
+        // Messages are only read by the dispatcher from now on, so reads block until the host sends something
+        clientSocket.setSoTimeout(0);
+        this.dispatcher = this.createDispatcher();
+        this.dispatcher.start();
+    }
+
+    /**
+     * createDispatcher
+     * Creates the dispatcher which handles every message from the host.
+     * Heartbeats and submission replies are handled on the reader thread, while screen changes run on the Swing thread.
+     * @return the message dispatcher
+     */
+    private MessageDispatcher createDispatcher() {
+        MessageDispatcher dispatcher = new MessageDispatcher(() -> this.input, this::reconnect);
+
+        // Answer heartbeats so the host knows the client is alive
+        dispatcher.on(ServerCode.HEARTBEAT, this::write);
+        dispatcher.on(ServerCode.SUBMISSION_ACCEPTED, (frame) -> this.acceptSubmission(frame.getPayload()));
+        dispatcher.on(ServerCode.SUBMISSION_RESYNC, (frame) -> this.resendSubmission());
+        dispatcher.onSwing(ServerCode.SUBMISSION_REJECTED, (frame) -> JOptionPane.showMessageDialog(this.frame, frame.getText()));
+        dispatcher.onSwing(ServerCode.NEXT_SCREEN, (frame) -> this.nextScreen());
+        dispatcher.onSwing(ServerCode.GAME_STATE, (frame) -> this.showState(GameState.decodeKeyframe(frame.getPayload())));
+        dispatcher.onSwing(ServerCode.GAME_DELTA, this::applyDelta);
+
+        return dispatcher;
+    }
+
+    /**
+     * nextScreen
+     * Moves from the waiting screen to the code submission screen, then to the spectator screen if the game is streamed.
+     * Closes the application once the game starts, or once it ends for spectators.
+     */
+    private void nextScreen() {
+        if (this.frame.getCurrentScreen() instanceof WaitingPanel) {
+            this.endWaiting();
+        } else if ((this.frame.getCurrentScreen() instanceof CodePanel) && ((this.features & Protocol.FEATURE_SPECTATE) != 0)) {
+            this.frame.switchScreen(new SpectatorPanel());
+        } else {
+            this.closeFrame();
+        }
+    }
+
+    /**
+     * showState
+     * Draws a game state on the spectator screen.
+     * @param state the game state
+     */
+    private void showState(GameState state) {
+        if (this.frame.getCurrentScreen() instanceof SpectatorPanel) {
+            ((SpectatorPanel) this.frame.getCurrentScreen()).setState(state);
+        }
+    }
+
+    /**
+     * applyDelta
+     * Applies the changes of one cycle to the drawn game state,
+     * asking the host for a new keyframe if a delta was missed.
+     * @param frame the {@link ServerCode#GAME_DELTA} frame
+     * @throws IOException if the delta is malformed
+     */
+    private void applyDelta(Frame frame) throws IOException {
+        if (!(this.frame.getCurrentScreen() instanceof SpectatorPanel)) {
+            return;
+        }
+
+        SpectatorPanel panel = (SpectatorPanel) this.frame.getCurrentScreen();
+
+        // Still waiting for the keyframe
+        if (panel.getState() == null) {
+            return;
+        }
+
+        GameState state = panel.getState().apply(frame.getPayload());
+
+        if (state == null) {
+            this.sendLater(
+                    () -> this.write(new Frame(ServerCode.SPECTATE)),
+                    (e) -> System.out.println("Failed to request a keyframe.")
+            );
+            return;
+        }
+
+        panel.setState(state);
     }
 
     /**
@@ -98,22 +232,232 @@ public class ClientApplication {
         currentPanel.stopTimer();
 
         this.frame.switchScreen(new CodePanel(this.client, this::sendProgram));
-
-        // Start thread to waiting for close message
-        NextScreenThread closeScreenThread = new NextScreenThread(this::closeFrame);
-        closeScreenThread.start();
     }
 
     /**
      * sendProgram
+     * Writes the client's program to the host socket on the sender thread,
+     * showing an error on the Swing thread if it could not be sent.
+     * @param program the program source code
+     */
+    private void sendProgram(String program) {
+        this.sendLater(
+                () -> this.writeProgram(program),
+                (e) -> JOptionPane.showMessageDialog(this.frame, "Failed to submit code.")
+        );
+    }
+
+    /**
+     * sendLater
+     * Runs a write on the sender thread, so the Swing thread never waits on the socket or a reconnect.
+     * @param write the write to run
+     * @param onFailure called on the Swing thread if the write fails
+     */
+    private void sendLater(IOProcedure write, Consumer<IOException> onFailure) {
+        try {
+            this.sender.execute(() -> {
+                try {
+                    write.execute();
+                } catch (IOException e) {
+                    SwingUtilities.invokeLater(() -> onFailure.accept(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // The application has been closed
+            System.out.println("Not connected to the host.");
+        }
+    }
+
+    /**
+     * writeProgram
      * Write the client's program to the host socket.
      * @param program the program source code
      * @throws IOException if an I/O error occurs when writing to the host socket
      */
-    private void sendProgram(String program) throws IOException {
-        this.output.write(program);
-        this.output.write(ServerCode.SUBMISSION_FINISHED.ordinal());
-        this.output.flush();
+    private void writeProgram(String program) throws IOException {
+        Frame submission = this.createSubmission(program);
+
+        // Small edits to an accepted source only send what changed
+        synchronized (this) {
+            if (((this.features & Protocol.FEATURE_PATCH) != 0) && (this.acceptedSource != null)) {
+                byte[] patch = SourcePatch.diff(this.acceptedSource, program).encode();
+
+                if (patch.length < submission.getPayload().length) {
+                    submission = new Frame(ServerCode.SUBMISSION_PATCH, patch);
+                }
+            }
+
+            this.pendingSource = program;
+        }
+
+        this.write(submission);
+    }
+
+    /**
+     * createSubmission
+     * Creates the frame which sends a whole program, compressed if that makes it smaller.
+     * @param program the program source code
+     * @return the submission frame
+     */
+    private Frame createSubmission(String program) {
+        Frame submission = new Frame(ServerCode.SUBMISSION_FINISHED, program);
+
+        // Generated tables and other repetitive code shrink a lot
+        if ((this.features & Protocol.FEATURE_COMPRESSION) != 0) {
+            byte[] compressed = Compression.compress(program);
+
+            if (compressed.length < submission.getPayload().length) {
+                submission = new Frame(ServerCode.SUBMISSION_COMPRESSED, compressed);
+            }
+        }
+
+        return submission;
+    }
+
+    /**
+     * acceptSubmission
+     * Remembers the sent program as accepted once the host confirms it, so the next submission can be a patch.
+     * @param hash the hash of the source the host accepted
+     */
+    private synchronized void acceptSubmission(byte[] hash) {
+        if ((this.pendingSource != null) && Arrays.equals(hash, SourcePatch.hash(this.pendingSource))) {
+            this.acceptedSource = this.pendingSource;
+        }
+    }
+
+    /**
+     * resendSubmission
+     * Sends the whole program again after the host could not apply a patch.
+     * @throws IOException if an I/O error occurs when writing to the host socket
+     */
+    private void resendSubmission() throws IOException {
+        String program;
+
+        synchronized (this) {
+            program = this.pendingSource;
+            this.acceptedSource = null;
+        }
+
+        if (program != null) {
+            this.write(this.createSubmission(program));
+        }
+    }
+
+    /**
+     * write
+     * Writes a frame to the host, resuming the session and writing again if the connection dropped.
+     * @param frame the frame to write
+     * @throws IOException if an I/O error occurs and the session could not be resumed
+     */
+    private void write(Frame frame) throws IOException {
+        FrameWriter output = this.output;
+
+        try {
+            output.write(frame);
+        } catch (IOException e) {
+            // Send again on a resumed connection
+            if (!this.reconnect(output)) {
+                throw e;
+            }
+
+            this.output.write(frame);
+        }
+    }
+
+    /**
+     * readResponse
+     * Reads the host's response to registering, keeping the features the host agreed to if it sent them first.
+     * @param input the reader of the connection
+     * @return the response, or null if the host closed the connection
+     * @throws IOException if an I/O error occurs
+     */
+    private Frame readResponse(FrameReader input) throws IOException {
+        Frame response = input.read();
+
+        if ((response != null) && (response.getType() == ServerCode.HELLO)) {
+            this.features = Protocol.getFeatures(response);
+            response = input.read();
+        }
+
+        return response;
+    }
+
+    /**
+     * reconnect
+     * Resumes the session on a new connection after the connection to the host drops.
+     * Attempts are repeated until the host answers or the reconnect window passes.
+     * @param failed the writer or reader of the connection which dropped
+     * @return if the session was resumed, either by this call or by another thread
+     */
+    private synchronized boolean reconnect(Object failed) {
+        if ((failed != this.input) && (failed != this.output)) {
+            return true;
+        }
+
+        if (this.closed || (this.resumeToken == null)) {
+            return false;
+        }
+
+        long deadline = System.currentTimeMillis() + RECONNECT_WINDOW;
+
+        while (!this.closed && (System.currentTimeMillis() < deadline)) {
+            Socket socket = null;
+
+            try {
+                socket = new Socket(this.ip, this.port);
+                socket.setSoTimeout(2000);
+
+                FrameReader input = new FrameReader(socket.getInputStream());
+                FrameWriter output = new FrameWriter(socket.getOutputStream());
+
+                output.write(Protocol.hello());
+                output.write(new Frame(ServerCode.RESUME, this.resumeToken));
+
+                Frame response = this.readResponse(input);
+
+                if ((response != null) && (response.getType() == ServerCode.ACCEPTED)) {
+                    socket.setSoTimeout(0);
+
+                    // Closing the dropped socket also closes its streams
+                    try {
+                        this.client.close();
+                    } catch (IOException e) {
+                        System.out.println("Failed to close client socket.");
+                    }
+
+                    // Keeps the name and code of the client
+                    this.client.reattach(new ClientConnection(socket));
+                    this.input = input;
+                    this.output = output;
+
+                    return true;
+                }
+
+                socket.close();
+
+                // The host no longer has the session
+                if ((response != null) && (response.getType() == ServerCode.DISCONNECT)) {
+                    System.out.println("Could not reconnect: " + response.getText());
+                    return false;
+                }
+            } catch (IOException e) {
+                if (socket != null) {
+                    try {
+                        socket.close();
+                    } catch (IOException closeException) {
+                        System.out.println("Failed to close client socket.");
+                    }
+                }
+            }
+
+            try {
+                Thread.sleep(RECONNECT_DELAY);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+
+        return false;
     }
 
     /**
@@ -136,6 +480,15 @@ public class ClientApplication {
      * @throws IOException if an I/O error occurs while attempting to close the socket
      */
     public void close() throws IOException {
+        this.closed = true;
+
+        // Interrupts a reconnect waiting between attempts
+        this.sender.shutdownNow();
+
+        if (this.dispatcher != null) {
+            this.dispatcher.stop();
+        }
+
         if (this.client == null) {
             return;
         }
@@ -152,52 +505,4 @@ public class ClientApplication {
             this.client.close();
         }
     }
-
-    /**
-     * Thread that waits for the {@link ServerCode#NEXT_SCREEN} message
-     * from the server and calls the callback function when received.
-     * @author Harry Xu
-     * @version 1.0 - December 23rd 2023
-     */
-    private class NextScreenThread extends Thread {
-        private final Procedure onNextScreen;
-
-        /**
-         * Constructs a {@link NextScreenThread} with a callback
-         * to call when the {@link ServerCode#NEXT_SCREEN} message is received
-         * @param onNextScreen the function which is called when the
-         *                      {@link ServerCode#NEXT_SCREEN} message is received
-         */
-        public NextScreenThread(Procedure onNextScreen) {
-            this.onNextScreen = onNextScreen;
-        }
-
-        /**
-         * run
-         * Runs the thread.
-         */
-        @Override
-        public void run() {
-            try {
-                client.getSocket().setSoTimeout(0);
-            } catch (SocketException e) {
-                System.out.println("Error in underlying TCP protocol.");
-            }
-
-            try {
-                boolean nextScreenReceived = false;
-
-                while (!nextScreenReceived) {
-                    int c = input.read();
-
-                    if (c == ServerCode.NEXT_SCREEN.ordinal()) {
-                        this.onNextScreen.execute();
-                        nextScreenReceived = true;
-                    }
-                }
-            } catch (IOException e) {
-				System.out.println("An error occured while reading from the client");
-            }
-        }
-    }
-}
\ No newline at end of file
+}
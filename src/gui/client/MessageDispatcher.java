@@ -0,0 +1,137 @@
+package gui.client;
+
+import function.FrameHandler;
+import protocol.Frame;
+import protocol.FrameReader;
+import server.ServerCode;
+
+import javax.swing.SwingUtilities;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Reads every message from the host on one long-lived thread and
+ * passes each message to the handler registered for its {@link ServerCode}.
+ * Handlers registered with {@link #onSwing(ServerCode, FrameHandler)} run on the event dispatch thread,
+ * while the others run on the reader thread, so replies such as heartbeats never wait behind the GUI.
+ * Messages without a handler are ignored.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class MessageDispatcher {
+    private final Map<ServerCode, FrameHandler> handlers;
+
+    /** The reader of the current connection, which changes when the session is resumed */
+    private final Supplier<FrameReader> input;
+
+    /** Resumes the session after a reader fails, returning if the session was resumed */
+    private final Predicate<FrameReader> recover;
+
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a {@link MessageDispatcher}.
+     * @param input supplies the reader of the current connection
+     * @param recover resumes the session after the given reader fails, returning if the session was resumed
+     */
+    MessageDispatcher(Supplier<FrameReader> input, Predicate<FrameReader> recover) {
+        this.handlers = new EnumMap<>(ServerCode.class);
+        this.input = input;
+        this.recover = recover;
+        this.thread = new Thread(this::readMessages, "MessageDispatcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * on
+     * Registers the handler of a type of message, which runs on the reader thread.
+     * Handlers must be registered before the dispatcher is started.
+     * @param type the type of message
+     * @param handler the handler of the message
+     */
+    void on(ServerCode type, FrameHandler handler) {
+        this.handlers.put(type, handler);
+    }
+
+    /**
+     * onSwing
+     * Registers the handler of a type of message, which runs on the event dispatch thread.
+     * Handlers must be registered before the dispatcher is started.
+     * @param type the type of message
+     * @param handler the handler of the message
+     */
+    void onSwing(ServerCode type, FrameHandler handler) {
+        this.on(type, (frame) -> SwingUtilities.invokeLater(() -> handle(handler, frame)));
+    }
+
+    /**
+     * start
+     * Starts reading messages from the host.
+     */
+    void start() {
+        this.thread.start();
+    }
+
+    /**
+     * stop
+     * Stops dispatching messages. The reader thread ends once its connection is closed.
+     */
+    void stop() {
+        this.stopped = true;
+    }
+
+    /**
+     * readMessages
+     * Reads and dispatches messages until the dispatcher is stopped or the session cannot be resumed.
+     */
+    private void readMessages() {
+        while (!this.stopped) {
+            FrameReader currentInput = this.input.get();
+            Frame frame;
+
+            try {
+                frame = currentInput.read();
+
+                if (frame == null) {
+                    throw new EOFException("Host closed the connection");
+                }
+            } catch (IOException e) {
+                if (this.stopped) {
+                    return;
+                }
+
+                if (!this.recover.test(currentInput)) {
+                    System.out.println("An error occured while reading from the host");
+                    return;
+                }
+
+                continue;
+            }
+
+            FrameHandler handler = this.handlers.get(frame.getType());
+
+            if (handler != null) {
+                handle(handler, frame);
+            }
+        }
+    }
+
+    /**
+     * handle
+     * Runs a handler, reporting any error it could not recover from.
+     * @param handler the handler of the message
+     * @param frame the message
+     */
+    private static void handle(FrameHandler handler, Frame frame) {
+        try {
+            handler.handle(frame);
+        } catch (IOException e) {
+            System.out.println("Failed to respond to " + frame.getType() + " from the host.");
+        }
+    }
+}
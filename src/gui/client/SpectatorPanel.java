@@ -0,0 +1,133 @@
+package gui.client;
+
+import game.GameState;
+import gui.Const;
+import gui.components.CustomLabel;
+
+import javax.swing.JPanel;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+
+/**
+ * Panel for watching the game streamed by the host.
+ * The map is drawn from the latest {@link GameState}, scaled to fit the panel.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class SpectatorPanel extends JPanel {
+    private static final Color TILE_COLOR = new Color(86, 125, 70);
+    private static final Color GRID_COLOR = new Color(76, 112, 62);
+    private static final Color CURRENCY_COLOR = new Color(255, 204, 0);
+    private static final Color PLAYER_COLOR = Const.SECONDARY_COLOR;
+
+    private final CustomLabel status;
+    private final MapView map;
+
+    private GameState state;
+
+    /**
+     * Constructs a {@link SpectatorPanel}.
+     */
+    public SpectatorPanel() {
+        this.setLayout(new BorderLayout());
+
+        this.status = new CustomLabel("Spectating", "waiting for the game", 24);
+        this.map = new MapView();
+
+        this.add(this.status, BorderLayout.NORTH);
+        this.add(this.map, BorderLayout.CENTER);
+    }
+
+    /**
+     * getState
+     * Gets the game state which is drawn.
+     * @return the game state, or null if none has arrived yet
+     */
+    public GameState getState() {
+        return this.state;
+    }
+
+    /**
+     * setState
+     * Draws a new game state.
+     * @param state the game state
+     */
+    public void setState(GameState state) {
+        this.state = state;
+        this.status.setContent("cycle " + state.getCycle());
+        this.map.repaint();
+    }
+
+    /**
+     * Draws the map of the current game state.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private class MapView extends JPanel {
+        /**
+         * paintComponent
+         * Draws every tile, coin and player.
+         * @param g the {@link Graphics} object used for drawing
+         */
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+
+            GameState currentState = state;
+
+            if (currentState == null) {
+                return;
+            }
+
+            int tileSize = Math.max(1, Math.min(
+                    this.getWidth() / currentState.getWidth(),
+                    this.getHeight() / currentState.getHeight()
+            ));
+
+            // Center the map
+            int left = (this.getWidth() - (tileSize * currentState.getWidth())) / 2;
+            int top = (this.getHeight() - (tileSize * currentState.getHeight())) / 2;
+
+            g.setColor(TILE_COLOR);
+            g.fillRect(left, top, tileSize * currentState.getWidth(), tileSize * currentState.getHeight());
+
+            g.setFont(new Font(Const.DEFAULT_FONT, Font.PLAIN, Math.max(8, tileSize / 3)));
+            FontMetrics fontMetrics = g.getFontMetrics();
+
+            for (int y = 0; y < currentState.getHeight(); y++) {
+                for (int x = 0; x < currentState.getWidth(); x++) {
+                    int xCoord = left + (x * tileSize);
+                    int yCoord = top + (y * tileSize);
+                    int occupant = currentState.getOccupant(x, y);
+
+                    g.setColor(GRID_COLOR);
+                    g.drawRect(xCoord, yCoord, tileSize, tileSize);
+
+                    if (occupant == GameState.CURRENCY) {
+                        int margin = tileSize / 4;
+
+                        g.setColor(CURRENCY_COLOR);
+                        g.fillOval(xCoord + margin, yCoord + margin, tileSize - (2 * margin), tileSize - (2 * margin));
+                    } else if (occupant >= 0) {
+                        int margin = tileSize / 8;
+
+                        g.setColor(PLAYER_COLOR);
+                        g.fillRect(xCoord + margin, yCoord + margin, tileSize - (2 * margin), tileSize - (2 * margin));
+
+                        // Health inside, name above
+                        String health = Integer.toString(currentState.getHealth(x, y));
+                        String name = currentState.getName(occupant);
+                        int centerX = xCoord + (tileSize / 2);
+
+                        g.setColor(Color.WHITE);
+                        g.drawString(health, centerX - (fontMetrics.stringWidth(health) / 2), yCoord + ((tileSize + fontMetrics.getAscent()) / 2));
+                        g.drawString(name, centerX - (fontMetrics.stringWidth(name) / 2), yCoord);
+                    }
+                }
+            }
+        }
+    }
+}
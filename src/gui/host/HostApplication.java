@@ -4,16 +4,21 @@ import client.ClientConnection;
 import game.GamePanel;
 import server.HostServer;
 import server.ServerCode;
+import server.ServerConfig;
+import server.ServerMode;
 import server.ServerState;
 import gui.Const;
 import gui.components.MultiScreenFrame;
 
 import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
 import java.awt.Dimension;
 import java.awt.Toolkit;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -31,9 +36,22 @@ public class HostApplication {
      * @throws IOException if an I/O error occurs while trying to open the host server
      */
     public HostApplication() throws IOException {
-        this.server = new HostServer();
+        // Students may watch the game on their own screens
+        ServerConfig config = new ServerConfig();
+        config.setMode(ServerMode.SELECTOR);
+        config.setSpectatorStreaming(true);
 
-        this.frame = new MultiScreenFrame("Host", new HostPanel(this.server, this::switchScreen));
+        // Keep every submission so games can be audited or rerun, and so a restarted host keeps its players
+        config.setStorageDirectory(Paths.get(System.getProperty("user.home"), ".ics4ue", "submissions"));
+
+        this.server = new HostServer(config);
+
+        // A host restarted while accepting submissions continues where it stopped
+        if (this.server.getState() == ServerState.CORRESPONDING) {
+            this.frame = new MultiScreenFrame("Host", new SubmissionsPanel(this.server, this::startGame));
+        } else {
+            this.frame = new MultiScreenFrame("Host", new HostPanel(this.server, this::switchScreen));
+        }
 
         this.frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.frame.setSize(Const.FRAME_WIDTH, Const.FRAME_HEIGHT);
@@ -67,6 +85,11 @@ public class HostApplication {
      * (i.e. starts the game simulation).
      */
     public void startGame() {
+        // Already starting
+        if (this.server.getState() == ServerState.CLOSED) {
+            return;
+        }
+
         this.server.setState(ServerState.CLOSED);
 
         // Get submitted programs
@@ -75,19 +98,36 @@ public class HostApplication {
                 .filter(ClientConnection::hasSubmitted)
                 .collect(Collectors.toSet());
 
-        // Close server
-        this.server.broadcast(ServerCode.NEXT_SCREEN);
+        // Close server once every client was told or timed out,
+        // which takes at most the broadcast timeout regardless of slow clients,
+        // without making the Swing thread wait for it
+        this.server.broadcast(ServerCode.NEXT_SCREEN).thenRun(() -> {
+            // Spectators are streamed the game, so the server stays open until it ends
+            boolean streaming = this.server.getDefaultLobby().getNumSpectators() > 0;
 
-        try {
-            this.close();
-        } catch (IOException e) {
-            System.out.println("An error occurred while trying to close the server ");
-        }
+            if (!streaming) {
+                this.closeServer();
+            }
+
+            SwingUtilities.invokeLater(() -> this.showGame(submittedClients, streaming));
+        });
+    }
 
+    /**
+     * showGame
+     * Switches the displayed panel to the {@link GamePanel} and starts the game.
+     * @param submittedClients the clients who submitted code
+     * @param streaming if the game is streamed to spectators
+     */
+    private void showGame(Set<ClientConnection> submittedClients, boolean streaming) {
         // Switch to 'GamePanel'
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
 
-        GamePanel gamePanel = new GamePanel(submittedClients, screenSize, this::onGameWin);
+        GamePanel gamePanel = new GamePanel(submittedClients, screenSize, this.server.getClassCache(), this::onGameWin);
+
+        if (streaming) {
+            gamePanel.onUpdate(this.server::stream);
+        }
         this.frame.setSize(screenSize);
         this.frame.switchScreen(gamePanel);
 
@@ -103,6 +143,27 @@ public class HostApplication {
     public void onGameWin(List<String> standings) {
         this.frame.setSize(new Dimension(Const.FRAME_WIDTH, Const.FRAME_HEIGHT));
         this.frame.switchScreen(new WinPanel(standings));
+
+        // Tell spectators the game is over, then close the server without making the Swing thread wait
+        CompletableFuture<?> told = CompletableFuture.completedFuture(null);
+
+        if (this.server.getDefaultLobby().getNumSpectators() > 0) {
+            told = this.server.broadcast(ServerCode.NEXT_SCREEN);
+        }
+
+        told.thenRunAsync(this::closeServer);
+    }
+
+    /**
+     * closeServer
+     * Closes the host server, reporting any error.
+     */
+    private void closeServer() {
+        try {
+            this.close();
+        } catch (IOException e) {
+            System.out.println("An error occurred while trying to close the server ");
+        }
     }
 
     /**
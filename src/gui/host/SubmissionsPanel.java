@@ -72,6 +72,9 @@ class SubmissionsPanel extends JPanel {
 
         // Attaching listeners
         this.host.onSubmit(this::syncData);
+
+        // Submissions restored after a restart are shown straight away
+        this.syncData();
     }
 
     /**
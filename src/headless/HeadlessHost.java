@@ -0,0 +1,317 @@
+package headless;
+
+import client.ClientConnection;
+import game.Game;
+import game.internal.assets.Assets;
+import server.HostServer;
+import server.ServerCode;
+import server.ServerConfig;
+import server.ServerMode;
+import server.ServerState;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Hosts a game from the command line without Swing.
+ * The accepting and submission phases each last for a time window, or until {@code start} is entered.
+ * The game is then simulated without rendering and the standings are printed.
+ * Usage: {@code java HeadlessMain [--mode mode] [--port port] [--accept seconds] [--submit seconds] [--cycles cycles]
+ * [--storage directory]}
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class HeadlessHost {
+    private static final String USAGE =
+            "Usage: java HeadlessMain [--mode threaded|virtual|selector] [--port port] "
+            + "[--accept seconds] [--submit seconds] [--cycles cycles] [--storage directory] [--compilers workers]";
+
+    /** Size of the screen the map is generated for, as the map shape depends on it */
+    private static final int VIRTUAL_WIDTH = 1920;
+    private static final int VIRTUAL_HEIGHT = 1080;
+
+    /** Sprites are never drawn, so load them small */
+    private static final int SPRITE_SIZE = 16;
+
+    private static final int DEFAULT_MAX_CYCLES = 100000;
+
+    private final ServerConfig config;
+    private final long acceptWindow;
+    private final long submitWindow;
+    private final int maxCycles;
+
+    /** Lines entered on standard input */
+    private final BlockingQueue<String> commands;
+
+    private HostServer server;
+
+    /**
+     * Constructs a {@link HeadlessHost}.
+     * @param config the server settings
+     * @param acceptWindow how long clients may join in milliseconds, or a negative number to wait for {@code start}
+     * @param submitWindow how long clients may submit in milliseconds, or a negative number to wait for {@code start}
+     * @param maxCycles the number of update cycles after which the game is stopped
+     */
+    public HeadlessHost(ServerConfig config, long acceptWindow, long submitWindow, int maxCycles) {
+        this.config = config;
+        this.acceptWindow = acceptWindow;
+        this.submitWindow = submitWindow;
+        this.maxCycles = maxCycles;
+        this.commands = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * fromArguments
+     * Creates a {@link HeadlessHost} from command line arguments.
+     * Prints the usage and exits if the arguments are invalid.
+     * @param args the command line arguments
+     * @return the headless host
+     */
+    public static HeadlessHost fromArguments(String[] args) {
+        ServerConfig config = new ServerConfig();
+        config.setMode(ServerMode.SELECTOR);
+
+        long acceptWindow = -1;
+        long submitWindow = -1;
+        int maxCycles = DEFAULT_MAX_CYCLES;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+
+                String value = args[i + 1];
+
+                switch (args[i]) {
+                    case "--mode":
+                        config.setMode(ServerMode.valueOf(value.toUpperCase()));
+                        break;
+                    case "--port":
+                        config.setPort(Integer.parseInt(value));
+                        break;
+                    case "--accept":
+                        acceptWindow = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                        break;
+                    case "--submit":
+                        submitWindow = TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+                        break;
+                    case "--cycles":
+                        maxCycles = Integer.parseInt(value);
+                        break;
+                    case "--storage":
+                        config.setStorageDirectory(Paths.get(value));
+                        break;
+                    case "--compilers":
+                        config.setCompileWorkers(Integer.parseInt(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+
+        return new HeadlessHost(config, acceptWindow, submitWindow, maxCycles);
+    }
+
+    /**
+     * run
+     * Runs the accepting, submission and game phases, then prints the standings.
+     * @throws IOException if an I/O error occurs while opening or closing the host server
+     * @throws InterruptedException if interrupted while waiting for a phase to end
+     */
+    public void run() throws IOException, InterruptedException {
+        this.server = new HostServer(this.config);
+
+        this.server.onConnect(() -> System.out.println("Players connected: " + this.server.getNumConnections()));
+        this.server.onDisconnect(() -> System.out.println("Players connected: " + this.server.getNumConnections()));
+        this.server.onSubmit(() -> System.out.println("Submissions: " + this.countSubmissions()));
+
+        this.readCommands();
+        this.server.serve();
+
+        System.out.println("Hosting on " + this.server.getInetAddress().getHostAddress() + ":" + this.server.getPort());
+
+        // Accepting phase, which already ended if the journal restored a lobby taking submissions
+        if (this.server.getDefaultLobby().getState() == ServerState.CORRESPONDING) {
+            System.out.println("Restored a lobby which is already accepting submissions");
+        } else {
+            this.awaitPhase("Accepting players", this.acceptWindow);
+            this.server.setState(ServerState.CORRESPONDING);
+        }
+
+        // Submission phase
+        this.awaitPhase("Accepting submissions", this.submitWindow);
+
+        System.out.println("Transfer: " + this.server.getSubmissionStats());
+
+        List<String> standings = this.runGame();
+
+        // Print standings, the winner is last
+        System.out.println("Standings:");
+
+        if (standings.isEmpty()) {
+            System.out.println("Nobody wins");
+        }
+
+        for (int i = 0; i < standings.size(); i++) {
+            System.out.println("#" + (i + 1) + ": " + standings.get(standings.size() - i - 1));
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * readCommands
+     * Starts a thread which forwards lines from standard input to the command queue.
+     */
+    private void readCommands() {
+        Thread reader = new Thread(() -> {
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+
+            try {
+                String line;
+
+                while ((line = input.readLine()) != null) {
+                    this.commands.add(line.trim().toLowerCase());
+                }
+            } catch (IOException e) {
+                System.out.println("Stopped reading commands from standard input.");
+            }
+        }, "HeadlessHost-Commands");
+
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * awaitPhase
+     * Handles commands until a phase's time window ends or {@code start} is entered.
+     * @param phase the name of the phase
+     * @param window the length of the phase in milliseconds, or a negative number to wait for {@code start}
+     * @throws IOException if an I/O error occurs while closing the host server
+     * @throws InterruptedException if interrupted while waiting for a command
+     */
+    private void awaitPhase(String phase, long window) throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + window;
+
+        if (window < 0) {
+            System.out.println(phase + ", enter 'start' to continue ('status' and 'quit' are also available)");
+        } else {
+            System.out.println(phase + " for " + TimeUnit.MILLISECONDS.toSeconds(window) + " seconds, or until 'start' is entered");
+        }
+
+        while (true) {
+            String command;
+
+            if (window < 0) {
+                command = this.commands.take();
+            } else {
+                long remaining = deadline - System.currentTimeMillis();
+
+                if (remaining <= 0) {
+                    return;
+                }
+
+                command = this.commands.poll(remaining, TimeUnit.MILLISECONDS);
+
+                if (command == null) {
+                    return;
+                }
+            }
+
+            switch (command) {
+                case "start":
+                    return;
+                case "status":
+                    System.out.println("Players connected: " + this.server.getNumConnections()
+                            + ", submissions: " + this.countSubmissions());
+                    System.out.println("Transfer: " + this.server.getSubmissionStats());
+                    System.out.println("Metrics: " + this.server.getMetrics());
+
+                    if (this.server.getArchive() != null) {
+                        System.out.println("Archived sources: " + this.server.getArchive().size());
+                    }
+
+                    break;
+                case "quit":
+                    this.server.close();
+                    System.exit(0);
+                    break;
+                case "":
+                    break;
+                default:
+                    System.out.println("Unknown command '" + command + "'");
+            }
+        }
+    }
+
+    /**
+     * runGame
+     * Closes the server and simulates the game with every client who submitted.
+     * @return the names of the players in the order they were eliminated
+     * @throws IOException if an I/O error occurs while closing the host server
+     */
+    private List<String> runGame() throws IOException {
+        this.server.setState(ServerState.CLOSED);
+
+        // Get submitted programs
+        Set<ClientConnection> submittedClients = this.server.getConnections()
+                .stream()
+                .filter(ClientConnection::hasSubmitted)
+                .collect(Collectors.toSet());
+
+        this.server.broadcast(ServerCode.NEXT_SCREEN).join();
+        this.server.close();
+
+        // Players and currency need sprites even though they are never drawn
+        Assets.initialize(SPRITE_SIZE);
+
+        int gridHeight = Game.getGridHeight(submittedClients.size(), VIRTUAL_WIDTH, VIRTUAL_HEIGHT);
+        int gridWidth = VIRTUAL_WIDTH / (VIRTUAL_HEIGHT / gridHeight);
+
+        Game game = new Game(submittedClients, gridWidth, gridHeight - 2, this.server.getClassCache());
+
+        System.out.println("Game started with " + submittedClients.size() + " submissions");
+
+        // Simulate as fast as possible, as nothing is animated
+        while (!game.isFinished() && (game.getCurrentCycle() <= this.maxCycles)) {
+            game.runUpdate();
+        }
+
+        if (game.isFinished()) {
+            System.out.println("Game finished after " + (game.getCurrentCycle() - 1) + " cycles");
+        } else {
+            System.out.println("Game stopped after " + this.maxCycles + " cycles");
+        }
+
+        List<String> standings = game.getStandings();
+        game.release();
+
+        return standings;
+    }
+
+    /**
+     * countSubmissions
+     * Counts the connected clients who have submitted code.
+     * @return the number of submissions
+     */
+    private long countSubmissions() {
+        return this.server.getConnections()
+                .stream()
+                .filter(ClientConnection::hasSubmitted)
+                .count();
+    }
+}
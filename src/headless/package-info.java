@@ -0,0 +1,6 @@
+/**
+ * A package for hosting games from the command line without a display.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package headless;
@@ -0,0 +1,160 @@
+package loader;
+
+import client.ClientConnection;
+import game.Player;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiles submissions on a pool of worker threads as soon as they arrive,
+ * and stores each compiled {@link Player} class on its {@link ClientConnection},
+ * so the game only has to instantiate players when it starts.
+ * A compile which has not started by the time its client submits again is skipped,
+ * and a class compiled from code which was since replaced is never used.
+ * Submissions which fail to compile are left to {@link ObjectLoader#loadAll(java.util.Collection)},
+ * which reports their errors when the game starts.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class BackgroundCompiler {
+    private final ThreadPoolExecutor workers;
+
+    /** The bytecode of sources compiled before, or null if every source is compiled */
+    private final ClassCache cache;
+
+    /** Loaders which no worker is using, as a compiler must not be shared between threads */
+    private final Queue<ObjectLoader> idleLoaders;
+
+    /** The latest compile of every client */
+    private final Map<ClientConnection, CompletableFuture<Void>> compiles;
+
+    /**
+     * Constructs a {@link BackgroundCompiler}.
+     * @param numWorkers the number of submissions compiled at once
+     * @param cache the cache of compiled classes, or null to compile every submission
+     */
+    public BackgroundCompiler(int numWorkers, ClassCache cache) {
+        this.cache = cache;
+        this.idleLoaders = new ConcurrentLinkedQueue<>();
+        this.compiles = new ConcurrentHashMap<>();
+
+        this.workers = new ThreadPoolExecutor(
+                numWorkers,
+                numWorkers,
+                0,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                (task) -> {
+                    Thread thread = new Thread(task, "BackgroundCompiler");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+        ) {
+            @Override
+            protected void terminated() {
+                closeLoaders();
+            }
+        };
+    }
+
+    /**
+     * submit
+     * Compiles the submitted code of a client in the background, replacing a compile of its earlier code.
+     * @param client the client which submitted code
+     */
+    public void submit(ClientConnection client) {
+        String name = client.getName();
+        String code;
+        byte[] codeHash;
+
+        // Read together, so the class is never stored under the hash of a different submission
+        synchronized (client) {
+            code = client.getCode();
+            codeHash = client.getCodeHash();
+        }
+
+        if ((name == null) || (code == null) || this.workers.isShutdown()) {
+            return;
+        }
+
+        CompletableFuture<Void> compile = CompletableFuture.runAsync(
+                () -> this.compile(client, name, code, codeHash),
+                this.workers
+        );
+
+        CompletableFuture<Void> previous = this.compiles.put(client, compile);
+
+        if (previous != null) {
+            previous.cancel(false);
+        }
+
+        compile.whenComplete((result, error) -> this.compiles.remove(client, compile));
+    }
+
+    /**
+     * close
+     * Stops accepting submissions. Compiles already queued still finish,
+     * after which the workers exit and the compilers are released.
+     */
+    public void close() {
+        this.workers.shutdown();
+    }
+
+    /**
+     * compile
+     * Compiles one submission and stores its class on the client, unless the client has submitted again since.
+     * @param client the client which submitted the code
+     * @param name the player name
+     * @param code the submitted code
+     * @param codeHash the hash of the submitted code
+     */
+    private void compile(ClientConnection client, String name, String code, byte[] codeHash) {
+        if (!Arrays.equals(codeHash, client.getCodeHash())) {
+            return;
+        }
+
+        ObjectLoader loader = this.idleLoaders.poll();
+
+        if (loader == null) {
+            loader = new ObjectLoader(this.cache);
+        }
+
+        try {
+            Class<? extends Player> playerClass = loader.loadClass(name, code);
+            client.setPlayerClass(codeHash, playerClass);
+        } catch (ObjectLoaderException e) {
+            // Compiled again when the game starts, which reports the error
+        } catch (RuntimeException e) {
+            // Would otherwise be lost in the future of the compile
+            System.out.println("Failed to compile " + name + "'s submission in the background: " + e.getMessage());
+        } finally {
+            this.idleLoaders.offer(loader);
+        }
+    }
+
+    /**
+     * closeLoaders
+     * Releases the compiler of every loader once the workers have exited.
+     */
+    private void closeLoaders() {
+        ObjectLoader loader;
+
+        while ((loader = this.idleLoaders.poll()) != null) {
+            try {
+                loader.close();
+            } catch (IOException e) {
+                System.out.println("Failed to release a background compiler.");
+            }
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache on disk of the bytecode compiled from submissions, so a source which was compiled before,
+ * in this run of the host or an earlier one, is loaded without running the compiler.
+ * Every source is stored in its own file, named by the SHA-256 hash of the player class name, the source,
+ * the cache format, the version of the Java runtime and a fingerprint of the game API, so a cached class is never used
+ * with a different compiler or game than it was compiled against.
+ * Once the files are larger than the size limit in total, the least recently used ones are deleted.
+ * Files are written to a temporary file and moved into place, and a file which cannot be read is treated as missing.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ClassCache {
+    /** The name of the cache directory inside a storage directory */
+    public static final String DIRECTORY = "classes";
+
+    /** The extensions of cache files, and of files which are still being written */
+    private static final String EXTENSION = ".classes";
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    /** Changed whenever submissions are compiled under different rules, such as which classes they may see */
+    private static final int FORMAT_VERSION = 3;
+
+    /** The fingerprint of the compiler and game API, computed once */
+    private static byte[] environment;
+
+    private final Path directory;
+    private final long maxSize;
+
+    /** The size of every cache file by key, from least to most recently used */
+    private final LinkedHashMap<String, Long> entries;
+    private long size;
+
+    /**
+     * Constructs a {@link ClassCache}.
+     * @param directory the cache directory
+     * @param maxSize the most bytes the cache files may take up
+     */
+    private ClassCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.size = 0;
+    }
+
+    /**
+     * open
+     * Opens the cache in a directory, creating the directory if needed.
+     * Files are ordered from least to most recently used by their modification times.
+     * @param directory the cache directory
+     * @param maxSize the most bytes the cache files may take up
+     * @return the cache
+     * @throws IOException if an I/O error occurs while listing the directory
+     */
+    public static ClassCache open(Path directory, long maxSize) throws IOException {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+
+        Files.createDirectories(directory);
+
+        ClassCache cache = new ClassCache(directory, maxSize);
+        List<Path> files = new ArrayList<>();
+        Map<Path, FileTime> lastUsed = new HashMap<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                files.add(file);
+                lastUsed.put(file, Files.getLastModifiedTime(file));
+            }
+        }
+
+        // Left by a host which stopped while writing a file
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMPORARY_EXTENSION)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        files.sort(Comparator.comparing(lastUsed::get));
+
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            long fileSize = Files.size(file);
+
+            cache.entries.put(fileName.substring(0, fileName.length() - EXTENSION.length()), fileSize);
+            cache.size += fileSize;
+        }
+
+        synchronized (cache) {
+            cache.evict();
+        }
+
+        return cache;
+    }
+
+    /**
+     * key
+     * Creates the key of a source compiled in this environment.
+     * @param className the name of the player class which the source declares
+     * @param code the source code
+     * @return the key, as a hexadecimal SHA-256 hash
+     */
+    public static String key(String className, String code) {
+        MessageDigest digest = createDigest();
+
+        digest.update(getEnvironment());
+        digest.update(className.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(code.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * get
+     * Gets the bytecode compiled from a source, and marks it as the most recently used.
+     * @param key the key of the source, from {@link #key(String, String)}
+     * @return the bytecode of every class by binary name, or null if the source is not cached
+     */
+    public synchronized Map<String, byte[]> get(String key) {
+        // Looking the key up moves it to the most recently used end
+        if (this.entries.get(key) == null) {
+            return null;
+        }
+
+        Path file = this.directory.resolve(key + EXTENSION);
+
+        try {
+            Map<String, byte[]> bytecode = decode(Files.readAllBytes(file));
+
+            // The modification time orders files by use when the cache is opened again
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+            return bytecode;
+        } catch (IOException e) {
+            this.remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * put
+     * Stores the bytecode compiled from a source, deleting the least recently used sources if the cache is full.
+     * A source which cannot be stored is compiled again the next time it is loaded.
+     * @param key the key of the source, from {@link #key(String, String)}
+     * @param bytecode the bytecode of every class by binary name
+     */
+    public synchronized void put(String key, Map<String, byte[]> bytecode) {
+        if (this.entries.containsKey(key)) {
+            return;
+        }
+
+        byte[] encoded = encode(bytecode);
+
+        // A source larger than the whole cache would only evict everything else
+        if (encoded.length > this.maxSize) {
+            return;
+        }
+
+        Path file = this.directory.resolve(key + EXTENSION);
+        Path temporary = this.directory.resolve(key + TEMPORARY_EXTENSION);
+
+        try {
+            Files.write(temporary, encoded);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("Failed to cache compiled classes: " + e.getMessage());
+            return;
+        }
+
+        this.entries.put(key, (long) encoded.length);
+        this.size += encoded.length;
+        this.evict();
+    }
+
+    /**
+     * getSize
+     * Gets the number of bytes the cache files take up.
+     * @return the cache size in bytes
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * getNumEntries
+     * Gets the number of sources whose bytecode is cached.
+     * @return the number of sources
+     */
+    public synchronized int getNumEntries() {
+        return this.entries.size();
+    }
+
+    /**
+     * evict
+     * Deletes the least recently used sources until the cache fits its size limit.
+     */
+    private void evict() {
+        // Iterated by entry, as looking a key up would count as a use and reorder the entries
+        Iterator<Map.Entry<String, Long>> entries = this.entries.entrySet().iterator();
+
+        while ((this.size > this.maxSize) && entries.hasNext()) {
+            Map.Entry<String, Long> entry = entries.next();
+
+            this.size -= entry.getValue();
+            entries.remove();
+            this.delete(entry.getKey());
+        }
+    }
+
+    /**
+     * remove
+     * Removes a source from the cache.
+     * @param key the key of the source
+     */
+    private void remove(String key) {
+        Long fileSize = this.entries.remove(key);
+
+        if (fileSize != null) {
+            this.size -= fileSize;
+        }
+
+        this.delete(key);
+    }
+
+    /**
+     * delete
+     * Deletes the cache file of a source.
+     * @param key the key of the source
+     */
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(this.directory.resolve(key + EXTENSION));
+        } catch (IOException e) {
+            System.out.println("Failed to delete cached classes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * encode
+     * Writes the bytecode of every class as the number of classes, then per class its name, length and bytes.
+     * @param bytecode the bytecode of every class by binary name
+     * @return the encoded classes
+     */
+    private static byte[] encode(Map<String, byte[]> bytecode) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(bytecode.size());
+
+            for (Map.Entry<String, byte[]> entry : bytecode.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeInt(entry.getValue().length);
+                output.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * decode
+     * Reads classes written by {@link #encode(Map)}.
+     * @param encoded the encoded classes
+     * @return the bytecode of every class by binary name
+     * @throws IOException if the classes are truncated or malformed
+     */
+    private static Map<String, byte[]> decode(byte[] encoded) throws IOException {
+        Map<String, byte[]> bytecode = new HashMap<>();
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            int numClasses = input.readInt();
+
+            for (int i = 0; i < numClasses; i++) {
+                String name = input.readUTF();
+                int length = input.readInt();
+
+                if ((length < 0) || (length > input.available())) {
+                    throw new IOException("Cached class " + name + " is truncated");
+                }
+
+                byte[] classBytes = new byte[length];
+                input.readFully(classBytes);
+                bytecode.put(name, classBytes);
+            }
+
+            if (input.available() > 0) {
+                throw new IOException("Unexpected bytes after the last cached class");
+            }
+        }
+
+        return bytecode;
+    }
+
+    /**
+     * getEnvironment
+     * Fingerprints the Java runtime, whose compiler produces the bytecode, and the bytecode of the game API.
+     * @return the fingerprint
+     */
+    private static synchronized byte[] getEnvironment() {
+        if (environment != null) {
+            return environment;
+        }
+
+        MessageDigest digest = createDigest();
+        digest.update((byte) FORMAT_VERSION);
+        digest.update(Runtime.version().toString().getBytes(StandardCharsets.UTF_8));
+
+        for (Class<?> apiClass : GameApi.CLASSES) {
+            String resource = apiClass.getSimpleName() + ".class";
+
+            try (InputStream classFile = apiClass.getResourceAsStream(resource)) {
+                if (classFile != null) {
+                    digest.update(classFile.readAllBytes());
+                }
+            } catch (IOException e) {
+                // Falls back to the class name, as the class still changes the fingerprint
+                digest.update(apiClass.getName().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        environment = digest.digest();
+
+        return environment;
+    }
+
+    /**
+     * createDigest
+     * Creates a SHA-256 digest.
+     * @return the digest
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package loader;
+
+import javax.tools.SimpleJavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+/**
+ * A compiled class file held in memory, which the compiler writes to instead of a file on disk.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class ClassFile extends SimpleJavaFileObject {
+    private final String className;
+    private final ByteArrayOutputStream bytecode;
+
+    /**
+     * Constructs a {@link ClassFile}.
+     * @param className the binary name of the class
+     */
+    ClassFile(String className) {
+        super(SourceFile.toUri("bytes", className, Kind.CLASS), Kind.CLASS);
+        this.className = className;
+        this.bytecode = new ByteArrayOutputStream();
+    }
+
+    /**
+     * getClassName
+     * Gets the binary name of the class.
+     * @return the class name
+     */
+    public String getClassName() {
+        return this.className;
+    }
+
+    /**
+     * getBytecode
+     * Gets the bytecode written by the compiler.
+     * @return the bytecode
+     */
+    public byte[] getBytecode() {
+        return this.bytecode.toByteArray();
+    }
+
+    /**
+     * openOutputStream
+     * Opens the stream which the compiler writes the bytecode to.
+     * @return the stream
+     */
+    @Override
+    public OutputStream openOutputStream() {
+        this.bytecode.reset();
+        return this.bytecode;
+    }
+}
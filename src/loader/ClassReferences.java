@@ -0,0 +1,138 @@
+package loader;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds the classes which compiled bytecode refers to, by reading the names and type descriptors
+ * in the constant pool of each class file.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+final class ClassReferences {
+    /** Constant pool tags */
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int INTERFACE_METHOD_REF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    private ClassReferences() {}
+
+    /**
+     * refersToAny
+     * Checks if a class file names any of a set of classes, as a class or inside a type descriptor.
+     * A string constant which happens to equal a class name also counts, so the check may report a
+     * reference which is not there, but never misses one.
+     * @param classFile the bytecode of the class
+     * @param classNames the binary names of the classes
+     * @return if the class file refers to any of the classes, or if it could not be read
+     */
+    static boolean refersToAny(byte[] classFile, Set<String> classNames) {
+        if (classNames.isEmpty()) {
+            return false;
+        }
+
+        Set<String> internalNames = new HashSet<>();
+
+        for (String className : classNames) {
+            internalNames.add(className.replace('.', '/'));
+        }
+
+        try {
+            for (String constant : readUtf8Constants(classFile)) {
+                if (internalNames.contains(constant)) {
+                    return true;
+                }
+
+                // Descriptors such as (LBobPlayer;)V and array classes such as [LBobPlayer;
+                for (String internalName : internalNames) {
+                    if (constant.contains("L" + internalName + ";")) {
+                        return true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * readUtf8Constants
+     * Reads every UTF-8 constant in the constant pool of a class file, which holds every class name and descriptor.
+     * @param classFile the bytecode of the class
+     * @return the constants
+     * @throws IOException if the class file is malformed
+     */
+    private static Set<String> readUtf8Constants(byte[] classFile) throws IOException {
+        Set<String> constants = new HashSet<>();
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(classFile))) {
+            if (input.readInt() != 0xCAFEBABE) {
+                throw new IOException("Not a class file");
+            }
+
+            // Minor and major version
+            input.skipNBytes(4);
+
+            int poolSize = input.readUnsignedShort();
+
+            for (int i = 1; i < poolSize; i++) {
+                int tag = input.readUnsignedByte();
+
+                switch (tag) {
+                    case UTF8:
+                        constants.add(input.readUTF());
+                        break;
+                    case CLASS:
+                    case STRING:
+                    case METHOD_TYPE:
+                    case MODULE:
+                    case PACKAGE:
+                        input.skipNBytes(2);
+                        break;
+                    case METHOD_HANDLE:
+                        input.skipNBytes(3);
+                        break;
+                    case INTEGER:
+                    case FLOAT:
+                    case FIELD_REF:
+                    case METHOD_REF:
+                    case INTERFACE_METHOD_REF:
+                    case NAME_AND_TYPE:
+                    case DYNAMIC:
+                    case INVOKE_DYNAMIC:
+                        input.skipNBytes(4);
+                        break;
+                    case LONG:
+                    case DOUBLE:
+                        // Takes up two entries of the pool
+                        input.skipNBytes(8);
+                        i++;
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag);
+                }
+            }
+        }
+
+        return constants;
+    }
+}
@@ -0,0 +1,45 @@
+package loader;
+
+import game.Data;
+import game.EnemyData;
+import game.Player;
+import game.Point;
+import game.QueryData;
+import game.Shop;
+import game.actions.Direction;
+import game.actions.Move;
+import game.internal.entities.GameObject;
+
+import java.util.List;
+
+/**
+ * The classes of the game which submissions are compiled against and may use.
+ * Every other class of the application is hidden from submissions.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+final class GameApi {
+    /** The game API, including the superclass of {@link Player} which its subclasses must see */
+    static final List<Class<?>> CLASSES = List.of(
+            Player.class, GameObject.class, Data.class, EnemyData.class, QueryData.class,
+            Shop.class, Point.class, Direction.class, Move.class
+    );
+
+    private GameApi() {}
+
+    /**
+     * isApiClass
+     * Checks if a class is part of the game API, counting the classes nested in an API class.
+     * @param name the binary name of the class
+     * @return if submissions may use the class
+     */
+    static boolean isApiClass(String name) {
+        for (Class<?> apiClass : CLASSES) {
+            if (name.equals(apiClass.getName()) || name.startsWith(apiClass.getName() + "$")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
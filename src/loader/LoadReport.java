@@ -0,0 +1,75 @@
+package loader;
+
+import game.Player;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of loading a batch of submissions with {@link ObjectLoader#loadAll(java.util.Collection)}:
+ * every player which was loaded, and why each of the others could not be.
+ * Once the players are no longer used, {@link #release()} lets the classes compiled for them be unloaded.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class LoadReport {
+    private final List<Player> players;
+    private final Map<String, ObjectLoaderException> failures;
+
+    /** The class loaders created for the players, which excludes the loaders of classes compiled ahead of time */
+    private final List<MemoryClassLoader> classLoaders;
+
+    /**
+     * Constructs a {@link LoadReport}.
+     * @param players the loaded players
+     * @param failures the error of every player which failed, by player name
+     * @param classLoaders the class loaders created for the players
+     */
+    LoadReport(List<Player> players, Map<String, ObjectLoaderException> failures, List<MemoryClassLoader> classLoaders) {
+        this.players = Collections.unmodifiableList(players);
+        this.failures = Collections.unmodifiableMap(failures);
+        this.classLoaders = classLoaders;
+    }
+
+    /**
+     * getPlayers
+     * Gets every player which was loaded.
+     * @return the loaded players
+     */
+    public List<Player> getPlayers() {
+        return this.players;
+    }
+
+    /**
+     * getFailures
+     * Gets the error of every player which could not be compiled, loaded, or instantiated.
+     * @return the errors by player name
+     */
+    public Map<String, ObjectLoaderException> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * getClassLoaders
+     * Gets the class loaders created for the players.
+     * @return the class loaders
+     */
+    List<MemoryClassLoader> getClassLoaders() {
+        return this.classLoaders;
+    }
+
+    /**
+     * release
+     * Releases the class loaders created for the players, which drops their bytecode and defines no more classes.
+     * The classes are unloaded once no player is reachable, so the players must not be used afterwards.
+     * Classes compiled ahead of time belong to their {@link client.ClientConnection} and are left loaded.
+     */
+    public void release() {
+        for (MemoryClassLoader classLoader : this.classLoaders) {
+            classLoader.release();
+        }
+
+        this.classLoaders.clear();
+    }
+}
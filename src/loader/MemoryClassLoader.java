@@ -0,0 +1,77 @@
+package loader;
+
+import java.util.Map;
+
+/**
+ * A class loader which defines the classes of one submission from bytecode held in memory.
+ * A submission only sees its own classes, the Java platform and the {@link GameApi game API},
+ * so classes of other submissions never collide with it and the rest of the application is hidden from it.
+ * Once released, the loader defines no more classes and drops its bytecode, and it is unloaded
+ * with its classes as soon as no instance of them is reachable.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class MemoryClassLoader extends ClassLoader {
+    /** Loads the game API, which is the class loader of the application */
+    private final ClassLoader apiLoader;
+
+    private Map<String, byte[]> bytecode;
+
+    /**
+     * Constructs a {@link MemoryClassLoader}.
+     * @param bytecode the bytecode of every class of the submission by binary name
+     * @param apiLoader the class loader of the game API
+     */
+    MemoryClassLoader(Map<String, byte[]> bytecode, ClassLoader apiLoader) {
+        super(ClassLoader.getPlatformClassLoader());
+        this.apiLoader = apiLoader;
+        this.bytecode = bytecode;
+    }
+
+    /**
+     * loadClass
+     * Loads a game API class from the application, and any other class from the platform or the submission.
+     * @param name the binary name of the class
+     * @param resolve if the class should be linked
+     * @return the class
+     * @throws ClassNotFoundException if the class is not visible to the submission
+     */
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (GameApi.isApiClass(name)) {
+            return this.apiLoader.loadClass(name);
+        }
+
+        return super.loadClass(name, resolve);
+    }
+
+    /**
+     * findClass
+     * Defines a class of the submission from its bytecode.
+     * @param name the binary name of the class
+     * @return the class
+     * @throws ClassNotFoundException if the class was not compiled, or the loader was released
+     */
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] classBytes;
+
+        synchronized (this) {
+            classBytes = (this.bytecode == null) ? null : this.bytecode.get(name);
+        }
+
+        if (classBytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        return this.defineClass(name, classBytes, 0, classBytes.length);
+    }
+
+    /**
+     * release
+     * Drops the bytecode of the submission, after which no more of its classes can be defined.
+     */
+    synchronized void release() {
+        this.bytecode = null;
+    }
+}
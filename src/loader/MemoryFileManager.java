@@ -0,0 +1,122 @@
+package loader;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A file manager which keeps every class the compiler outputs in memory, grouped by the source it was compiled from.
+ * The Java platform is looked up by the standard file manager, while the class path only shows
+ * the {@link GameApi game API}, so a submission which uses any other class of the application fails to compile.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private final Map<String, ClassFile> classFiles;
+
+    /** The source every class was compiled from, by binary name */
+    private final Map<String, FileObject> sources;
+
+    /**
+     * Constructs a {@link MemoryFileManager}.
+     * @param fileManager the standard file manager of the compiler
+     */
+    MemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+        this.classFiles = new HashMap<>();
+        this.sources = new HashMap<>();
+    }
+
+    /**
+     * list
+     * Lists the files in a package, leaving out every class on the class path outside the game API.
+     * @param location the location to list
+     * @param packageName the package name
+     * @param kinds the kinds of files to list
+     * @param recurse if subpackages are listed too
+     * @return the files
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public Iterable<JavaFileObject> list(
+            JavaFileManager.Location location,
+            String packageName,
+            Set<JavaFileObject.Kind> kinds,
+            boolean recurse
+    ) throws IOException {
+        Iterable<JavaFileObject> files = super.list(location, packageName, kinds, recurse);
+
+        if (location != StandardLocation.CLASS_PATH) {
+            return files;
+        }
+
+        List<JavaFileObject> visible = new ArrayList<>();
+
+        for (JavaFileObject file : files) {
+            if (GameApi.isApiClass(this.inferBinaryName(location, file))) {
+                visible.add(file);
+            }
+        }
+
+        return visible;
+    }
+
+    /**
+     * getJavaFileForOutput
+     * Gets the in-memory file which the compiler writes a class to.
+     * @param location the output location
+     * @param className the binary name of the class
+     * @param kind the kind of file
+     * @param sibling the source file the class was compiled from
+     * @return the file to write to
+     */
+    @Override
+    public JavaFileObject getJavaFileForOutput(
+            JavaFileManager.Location location,
+            String className,
+            JavaFileObject.Kind kind,
+            FileObject sibling
+    ) {
+        ClassFile classFile = new ClassFile(className);
+        this.classFiles.put(className, classFile);
+        this.sources.put(className, sibling);
+
+        return classFile;
+    }
+
+    /**
+     * getBytecode
+     * Gets the bytecode of every class compiled so far by binary name.
+     * @return the bytecode of every class
+     */
+    public Map<String, byte[]> getBytecode() {
+        return this.getBytecode(null);
+    }
+
+    /**
+     * getBytecode
+     * Gets the bytecode of every class compiled from one source by binary name.
+     * @param source the source, or null for every source
+     * @return the bytecode of the classes of the source
+     */
+    public Map<String, byte[]> getBytecode(FileObject source) {
+        Map<String, byte[]> bytecode = new HashMap<>();
+
+        for (ClassFile classFile : this.classFiles.values()) {
+            if ((source == null) || (this.sources.get(classFile.getClassName()) == source)) {
+                bytecode.put(classFile.getClassName(), classFile.getBytecode());
+            }
+        }
+
+        return bytecode;
+    }
+}
@@ -3,32 +3,73 @@ package loader;
 import client.ClientConnection;
 import game.Player;
 
+import javax.lang.model.SourceVersion;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
 import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
-import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Class for compiling, loading, and instantiating submitted {@link Player} classes.
+ * Sources are compiled from memory and their bytecode is defined straight from memory,
+ * so loading a player never touches the file system.
+ * Every submission is compiled against and loaded with only the game API, each by a class loader of its own.
+ * The standard file manager, which indexes the class path, is shared by every load and released by {@link #close()}.
+ * A batch of submissions is compiled by {@link #loadAll(Collection)} in a single compilation, so javac only starts once.
+ * {@link #loadAll(Collection, int)} splits a batch between several compilers running on separate cores.
+ * Given a {@link ClassCache}, a single player class which was compiled before is loaded without compiling it again.
  * @author Harry Xu
  * @version January 6th 2024
  * */
-public class ObjectLoader {
+public class ObjectLoader implements AutoCloseable {
+    /** The fewest submissions worth starting another compiler for */
+    private static final int MIN_PARTITION_SIZE = 8;
+
     private final JavaCompiler compiler;
-    private final File root;
+    private final StandardJavaFileManager fileManager;
+
+    /** The bytecode of sources compiled before, or null if every source is compiled */
+    private final ClassCache cache;
 
     /**
-     * Constructs an {@link ObjectLoader}.
-     * @throws IOException if an I/O error occurs
+     * Constructs an {@link ObjectLoader} which compiles every source.
+     * @throws IllegalStateException if no Java compiler is available, as on a runtime without the JDK tools
      */
-    public ObjectLoader() throws IOException {
+    public ObjectLoader() {
+        this(null);
+    }
+
+    /**
+     * Constructs an {@link ObjectLoader} which reuses the bytecode of sources compiled before.
+     * @param cache the cache of compiled classes, or null to compile every source
+     * @throws IllegalStateException if no Java compiler is available, as on a runtime without the JDK tools
+     */
+    public ObjectLoader(ClassCache cache) {
+        this.cache = cache;
         this.compiler = ToolProvider.getSystemJavaCompiler();
-        this.root = Files.createTempDirectory("players").toFile();
+
+        if (this.compiler == null) {
+            throw new IllegalStateException("No Java compiler is available");
+        }
+
+        this.fileManager = this.compiler.getStandardFileManager(null, Locale.getDefault(), StandardCharsets.UTF_8);
     }
 
     /**
@@ -36,10 +77,9 @@ public class ObjectLoader {
      * Loads a single {@link Player} object with a player name and the code.
      * @param client the client which has submitted the code
      * @return an instance of submitted {@link Player} class
-	 * @throws IOException if an I/O error occurs while writing to or creating the program file
 	 * @throws ObjectLoaderException if an error occurs while compiling, loading, or instantiating the {@link Player}
      */
-    public Player load(ClientConnection client) throws IOException, ObjectLoaderException {
+    public Player load(ClientConnection client) throws ObjectLoaderException {
         if (!client.hasSubmitted() || client.getName() == null) {
             throw new IllegalArgumentException("Client has invalid data.");
         }
@@ -53,33 +93,424 @@ public class ObjectLoader {
      * @param name the player name
      * @param code the player class source code as a {@link String}
      * @return an instance of submitted {@link Player} class
-	 * @throws IOException if an I/O error occurs while writing to or creating the program file
 	 * @throws ObjectLoaderException if an error occurs while compiling, loading, or instantiating the {@link Player}
      */
-    public Player load(String name, String code) throws IOException, ObjectLoaderException {
+    public Player load(String name, String code) throws ObjectLoaderException {
+        return instantiate(name, this.loadClass(name, code));
+    }
+
+    /**
+     * loadClass
+     * Compiles and loads the {@link Player} class of a player without instantiating it.
+     * The bytecode is taken from the cache if the source was compiled before, and added to it otherwise.
+     * @param name the player name
+     * @param code the player class source code as a {@link String}
+     * @return the submitted {@link Player} class
+     * @throws ObjectLoaderException if an error occurs while compiling or loading the {@link Player} class
+     */
+    public Class<? extends Player> loadClass(String name, String code) throws ObjectLoaderException {
+        if (!isValidName(name)) {
+            throw new ObjectLoaderException(invalidName(name));
+        }
+
         String className = name + "Player";
+        String key = null;
+        Map<String, byte[]> bytecode = null;
+
+        if (this.cache != null) {
+            key = ClassCache.key(className, code);
+            bytecode = this.cache.get(key);
+        }
+
+        if (bytecode == null) {
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            MemoryFileManager compiled = this.compile(List.of(new SourceFile(className, code)), diagnostics);
+
+            if (compiled == null) {
+                throw new ObjectLoaderException("Compilation Failed" + formatErrors(diagnostics));
+            }
+
+            bytecode = compiled.getBytecode();
+
+            if (this.cache != null) {
+                this.cache.put(key, bytecode);
+            }
+        }
+
+        return findPlayerClass(name, new MemoryClassLoader(bytecode, Player.class.getClassLoader()));
+    }
+
+    /**
+     * loadAll
+     * Loads the {@link Player} of every client in one compilation.
+     * Clients whose code was already compiled by {@link #loadClass(String, String)} are only instantiated,
+     * sources in the class cache are only loaded, and every source compiled here is added to the cache.
+     * If any submission fails to compile, the submissions with errors are compiled on their own to find
+     * their errors, and the rest are compiled together again until they succeed,
+     * so one broken submission never fails the others.
+     * A submission which compiled against another submission's classes is compiled again on its own,
+     * as every submission is loaded by a class loader which only sees its own classes and the game API.
+     * @param clients the clients which have submitted code
+     * @return the loaded players, and the error of every player which failed
+     */
+    public LoadReport loadAll(Collection<ClientConnection> clients) {
+        Map<String, SourceFile> units = new LinkedHashMap<>();
+        Map<String, String> codes = new LinkedHashMap<>();
+        List<Player> players = new ArrayList<>();
+        Map<String, ObjectLoaderException> failures = new LinkedHashMap<>();
+        List<MemoryClassLoader> classLoaders = new ArrayList<>();
+
+        for (ClientConnection client : clients) {
+            if (!client.hasSubmitted() || client.getName() == null) {
+                throw new IllegalArgumentException("Client has invalid data.");
+            }
+
+            // Only fails the one player, as the name is part of the source file and class names
+            if (!isValidName(client.getName())) {
+                failures.put(client.getName(), new ObjectLoaderException(invalidName(client.getName())));
+                continue;
+            }
+
+            Class<? extends Player> playerClass = client.getPlayerClass();
+
+            if (playerClass != null) {
+                try {
+                    players.add(instantiate(client.getName(), playerClass));
+                } catch (ObjectLoaderException e) {
+                    failures.put(client.getName(), e);
+                }
 
-        // Create temporary source file
-        File sourceFile = new File(this.root, className + ".java");
-        Files.write(sourceFile.toPath(), code.getBytes(StandardCharsets.UTF_8));
+                continue;
+            }
 
-        int resultCode = this.compiler.run(null, null, null, sourceFile.getPath());
+            // Sources compiled before, by this host or an earlier run, are only loaded
+            Map<String, byte[]> bytecode = null;
 
-        if (resultCode != 0) {
-            throw new ObjectLoaderException("Compilation Failed");
+            if (this.cache != null) {
+                bytecode = this.cache.get(ClassCache.key(client.getName() + "Player", client.getCode()));
+            }
+
+            if (bytecode != null) {
+                MemoryClassLoader classLoader = new MemoryClassLoader(bytecode, Player.class.getClassLoader());
+                classLoaders.add(classLoader);
+
+                try {
+                    players.add(instantiate(client.getName(), findPlayerClass(client.getName(), classLoader)));
+                } catch (ObjectLoaderException e) {
+                    failures.put(client.getName(), e);
+                }
+
+                continue;
+            }
+
+            units.put(client.getName(), new SourceFile(client.getName() + "Player", client.getCode()));
+            codes.put(client.getName(), client.getCode());
+        }
+
+        List<String> isolated = new ArrayList<>();
+        MemoryFileManager compiled = null;
+
+        // Set aside the submissions with errors until the rest compile together
+        while (!units.isEmpty()) {
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            compiled = this.compile(units.values(), diagnostics);
+
+            if (compiled != null) {
+                break;
+            }
+
+            Set<JavaFileObject> broken = new HashSet<>();
+
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    broken.add(diagnostic.getSource());
+                }
+            }
+
+            Map<String, SourceFile> clean = new LinkedHashMap<>();
+
+            for (Map.Entry<String, SourceFile> unit : units.entrySet()) {
+                if (broken.contains(unit.getValue())) {
+                    isolated.add(unit.getKey());
+                } else {
+                    clean.put(unit.getKey(), unit.getValue());
+                }
+            }
+
+            // No error names a submission, so compile every one on its own
+            if (clean.size() == units.size()) {
+                isolated.addAll(clean.keySet());
+                clean.clear();
+            }
+
+            units = clean;
+        }
+
+        Map<String, Map<String, byte[]>> bytecodes = new LinkedHashMap<>();
+
+        for (Map.Entry<String, SourceFile> unit : units.entrySet()) {
+            bytecodes.put(unit.getKey(), compiled.getBytecode(unit.getValue()));
         }
 
-        // Attempt to load class file
-        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{ root.toURI().toURL() })) {
-            Class<?> cls = Class.forName(className, true, classLoader);
-            Player player = (Player) cls.getDeclaredConstructor().newInstance();
+        // A submission may have compiled against another's classes, which its own class loader cannot see,
+        // so it is compiled again on its own, where that fails as a normal compile error
+        for (String name : new ArrayList<>(bytecodes.keySet())) {
+            if (usesOtherSubmissions(name, bytecodes)) {
+                isolated.add(name);
+            }
+        }
+
+        bytecodes.keySet().removeAll(isolated);
+
+        // Compile the set aside submissions on their own, to find which fail even without the others
+        for (String name : isolated) {
+            try {
+                Class<? extends Player> playerClass = this.loadClass(name, codes.get(name));
+                classLoaders.add((MemoryClassLoader) playerClass.getClassLoader());
+                players.add(instantiate(name, playerClass));
+            } catch (ObjectLoaderException e) {
+                failures.put(name, e);
+            }
+        }
+
+        // Every submission gets a class loader of its own, so classes named alike in two submissions never collide
+        for (Map.Entry<String, Map<String, byte[]>> unit : bytecodes.entrySet()) {
+            if (this.cache != null) {
+                this.cache.put(ClassCache.key(unit.getKey() + "Player", codes.get(unit.getKey())), unit.getValue());
+            }
+
+            MemoryClassLoader classLoader = new MemoryClassLoader(unit.getValue(), Player.class.getClassLoader());
+            classLoaders.add(classLoader);
+
+            try {
+                players.add(instantiate(unit.getKey(), findPlayerClass(unit.getKey(), classLoader)));
+            } catch (ObjectLoaderException e) {
+                failures.put(unit.getKey(), e);
+            }
+        }
+
+        return new LoadReport(players, failures, classLoaders);
+    }
+
+    /**
+     * loadAll
+     * Loads the {@link Player} of every client, splitting the clients between several compilers which run at once.
+     * Each compiler reads the game classes from the same class path, and compiles its part of the clients
+     * in one compilation as {@link #loadAll(Collection)} does.
+     * Fewer compilers are used if some of them would only get a few clients.
+     * The same players load whichever compiler a client is dealt to, as no submission may use another's classes.
+     * @param clients the clients which have submitted code
+     * @param parallelism the most compilers to run at once
+     * @return the loaded players, and the error of every player which failed
+     */
+    public LoadReport loadAll(Collection<ClientConnection> clients, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        int numPartitions = Math.min(parallelism, (clients.size() + MIN_PARTITION_SIZE - 1) / MIN_PARTITION_SIZE);
+
+        if (numPartitions <= 1) {
+            return this.loadAll(clients);
+        }
+
+        // Deal the clients out, so every compiler gets a similar share
+        List<List<ClientConnection>> partitions = new ArrayList<>();
+
+        for (int i = 0; i < numPartitions; i++) {
+            partitions.add(new ArrayList<>());
+        }
+
+        int next = 0;
+
+        for (ClientConnection client : clients) {
+            partitions.get(next).add(client);
+            next = (next + 1) % numPartitions;
+        }
+
+        // This loader compiles the first part, as a compiler must not be shared between threads
+        List<Callable<LoadReport>> tasks = new ArrayList<>();
+        tasks.add(() -> this.loadAll(partitions.get(0)));
+
+        for (List<ClientConnection> partition : partitions.subList(1, numPartitions)) {
+            tasks.add(() -> {
+                try (ObjectLoader loader = new ObjectLoader(this.cache)) {
+                    return loader.loadAll(partition);
+                }
+            });
+        }
+
+        List<Player> players = new ArrayList<>();
+        Map<String, ObjectLoaderException> failures = new LinkedHashMap<>();
+        List<MemoryClassLoader> classLoaders = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(numPartitions);
+
+        try {
+            for (Future<LoadReport> result : pool.invokeAll(tasks)) {
+                LoadReport report = result.get();
+
+                players.addAll(report.getPlayers());
+                failures.putAll(report.getFailures());
+                classLoaders.addAll(report.getClassLoaders());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compiling submissions", e);
+        } catch (ExecutionException e) {
+            // Invalid clients are reported as by the sequential load
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException("Failed to compile submissions", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        return new LoadReport(players, failures, classLoaders);
+    }
+
+    /**
+     * usesOtherSubmissions
+     * Checks if any class of a submission refers to a class of another submission compiled in the same batch.
+     * @param name the player name of the submission
+     * @param bytecodes the bytecode of the classes of every submission in the batch, by player name
+     * @return if the submission refers to another submission
+     */
+    private static boolean usesOtherSubmissions(String name, Map<String, Map<String, byte[]>> bytecodes) {
+        Set<String> others = new HashSet<>();
+
+        for (Map.Entry<String, Map<String, byte[]>> unit : bytecodes.entrySet()) {
+            if (!unit.getKey().equals(name)) {
+                others.addAll(unit.getValue().keySet());
+            }
+        }
+
+        for (byte[] classFile : bytecodes.get(name).values()) {
+            if (ClassReferences.refersToAny(classFile, others)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * isValidName
+     * Checks if a player name makes a valid class name, as the player class of a player is its name followed by Player.
+     * @param name the player name
+     * @return if the name is a Java identifier
+     */
+    public static boolean isValidName(String name) {
+        return (name != null) && SourceVersion.isIdentifier(name + "Player");
+    }
+
+    /**
+     * invalidName
+     * Explains why a player name cannot be compiled.
+     * @param name the player name
+     * @return the error message
+     */
+    private static String invalidName(String name) {
+        return "Name '" + name + "' is not a valid Java identifier";
+    }
+
+    /**
+     * close
+     * Releases the class path files held open by the compiler.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.fileManager.close();
+    }
+
+    /**
+     * compile
+     * Compiles sources from memory to memory in a single compilation.
+     * @param units the sources to compile
+     * @param diagnostics the collector of the compiler errors
+     * @return the file manager holding the bytecode of every class, or null if any source failed to compile
+     */
+    private MemoryFileManager compile(Collection<SourceFile> units, DiagnosticCollector<JavaFileObject> diagnostics) {
+        MemoryFileManager memoryFileManager = new MemoryFileManager(this.fileManager);
+
+        JavaCompiler.CompilationTask task = this.compiler.getTask(
+                null,
+                memoryFileManager,
+                diagnostics,
+                null,
+                null,
+                units
+        );
+
+        if (!task.call()) {
+            return null;
+        }
+
+        return memoryFileManager;
+    }
+
+    /**
+     * instantiate
+     * Instantiates a compiled {@link Player} class.
+     * @param name the player name
+     * @param playerClass the {@link Player} class of the player
+     * @return an instance of the {@link Player} class
+     * @throws ObjectLoaderException if an error occurs while instantiating the {@link Player}
+     */
+    public static Player instantiate(String name, Class<? extends Player> playerClass) throws ObjectLoaderException {
+        try {
+            Player player = playerClass.getDeclaredConstructor().newInstance();
             player.setName(name);
             return player;
-        } catch (ClassNotFoundException |InvocationTargetException | InstantiationException |
+        } catch (InvocationTargetException | InstantiationException |
                  IllegalAccessException | NoSuchMethodException e) {
             throw new ObjectLoaderException(e);
+        } catch (LinkageError e) {
+            // The class uses a class which the submission cannot see
+            throw new ObjectLoaderException(e);
+        }
+    }
+
+    /**
+     * findPlayerClass
+     * Loads the {@link Player} class of a player from compiled classes.
+     * The class is only initialized once it is instantiated, so no submitted code runs while it is loaded.
+     * @param name the player name
+     * @param classLoader the class loader which defines the compiled class
+     * @return the {@link Player} class
+     * @throws ObjectLoaderException if the class was not compiled or is not a {@link Player}
+     */
+    private static Class<? extends Player> findPlayerClass(String name, ClassLoader classLoader) throws ObjectLoaderException {
+        try {
+            return Class.forName(name + "Player", false, classLoader).asSubclass(Player.class);
+        } catch (ClassNotFoundException e) {
+            throw new ObjectLoaderException(e);
         } catch (ClassCastException e) {
             throw new ObjectLoaderException("Could not cast " + name + "'s class to a Player instance.");
         }
     }
+
+    /**
+     * formatErrors
+     * Formats every compilation error, one per line.
+     * @param diagnostics the diagnostics of the compilation
+     * @return the errors, each on a new line
+     */
+    private static String formatErrors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        StringBuilder errors = new StringBuilder();
+
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.append(System.lineSeparator())
+                        .append("line ")
+                        .append(diagnostic.getLineNumber())
+                        .append(": ")
+                        .append(diagnostic.getMessage(Locale.getDefault()));
+            }
+        }
+
+        return errors.toString();
+    }
 }
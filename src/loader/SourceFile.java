@@ -0,0 +1,52 @@
+package loader;
+
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * A Java source file held in memory, which is given to the compiler instead of a file on disk.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class SourceFile extends SimpleJavaFileObject {
+    private final String code;
+
+    /**
+     * Constructs a {@link SourceFile}.
+     * @param className the name of the top level class which the source declares
+     * @param code the source code
+     */
+    SourceFile(String className, String code) {
+        super(toUri("string", className, Kind.SOURCE), Kind.SOURCE);
+        this.code = code;
+    }
+
+    /**
+     * toUri
+     * Creates the URI of an in-memory file, quoting any characters of the class name which a URI may not hold.
+     * @param scheme the URI scheme
+     * @param className the binary name of the class
+     * @param kind the kind of file
+     * @return the URI
+     */
+    static URI toUri(String scheme, String className, Kind kind) {
+        try {
+            return new URI(scheme, null, "/" + className.replace('.', '/') + kind.extension, null);
+        } catch (URISyntaxException e) {
+            // An absolute path is always a valid URI
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * getCharContent
+     * Gets the source code.
+     * @param ignoreEncodingErrors unused, as the source is already decoded
+     * @return the source code
+     */
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return this.code;
+    }
+}
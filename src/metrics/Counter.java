@@ -0,0 +1,45 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A total which only grows, cheap to update from many threads at once.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Counter {
+    private final LongAdder count;
+
+    /**
+     * Constructs a {@link Counter} at zero.
+     */
+    public Counter() {
+        this.count = new LongAdder();
+    }
+
+    /**
+     * increment
+     * Adds one to the counter.
+     */
+    public void increment() {
+        this.count.increment();
+    }
+
+    /**
+     * add
+     * Adds an amount to the counter.
+     * @param amount the amount to add
+     */
+    public void add(long amount) {
+        this.count.add(amount);
+    }
+
+    /**
+     * getCount
+     * Gets the total.
+     * @return the count
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+}
@@ -0,0 +1,16 @@
+package metrics;
+
+/**
+ * A value which is read on demand, such as the size of a collection.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+@FunctionalInterface
+public interface Gauge {
+    /**
+     * getValue
+     * Reads the current value.
+     * @return the value
+     */
+    long getValue();
+}
@@ -0,0 +1,147 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the distribution of non-negative values, such as sizes or durations, in fixed memory.
+ * Values are counted in buckets which split every power of two into eight,
+ * so percentiles are exact below eight and otherwise within an eighth of the true value.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Histogram {
+    /** Each power of two is split into 2^SUB_BUCKET_BITS buckets */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Constructs an empty {@link Histogram}.
+     */
+    public Histogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * record
+     * Records a value, counting negative values as zero.
+     * @param value the value
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+
+        this.buckets.incrementAndGet(bucketOf(value));
+        this.count.increment();
+        this.sum.add(value);
+        this.max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * getCount
+     * Gets the number of values recorded.
+     * @return the number of values
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * getMean
+     * Gets the average of the values recorded.
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long count = this.getCount();
+
+        if (count == 0) {
+            return 0;
+        }
+
+        return this.sum.sum() / (double) count;
+    }
+
+    /**
+     * getMax
+     * Gets the largest value recorded.
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return this.max.get();
+    }
+
+    /**
+     * getPercentile
+     * Estimates a percentile of the values recorded using the nearest-rank method.
+     * @param fraction the percentile as a fraction between 0 and 1
+     * @return the upper bound of the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(double fraction) {
+        long total = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.buckets.get(i);
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.buckets.get(i);
+
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), this.getMax());
+            }
+        }
+
+        return this.getMax();
+    }
+
+    /**
+     * bucketOf
+     * Gets the bucket a value is counted in.
+     * @param value the non-negative value
+     * @return the bucket index
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * upperBoundOf
+     * Gets the largest value counted in a bucket.
+     * @param bucket the bucket index
+     * @return the upper bound of the bucket
+     */
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+        return ((SUB_BUCKETS + subBucket) * width) + width - 1;
+    }
+}
@@ -0,0 +1,92 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events and the rate they happened at over the last minute.
+ * Events are kept in one slot per second, and a slot is reused once its second is a minute old.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Meter {
+    private static final int WINDOW_SECONDS = 60;
+
+    private final LongAdder count;
+
+    /** Events in each second of the window, and the second each slot holds */
+    private final AtomicLongArray slotCounts;
+    private final AtomicLongArray slotSeconds;
+
+    /**
+     * Constructs a {@link Meter} without events.
+     */
+    public Meter() {
+        this.count = new LongAdder();
+        this.slotCounts = new AtomicLongArray(WINDOW_SECONDS);
+        this.slotSeconds = new AtomicLongArray(WINDOW_SECONDS);
+
+        // No slot holds the current second yet
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            this.slotSeconds.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * mark
+     * Records an event.
+     */
+    public void mark() {
+        this.count.increment();
+
+        long second = currentSecond();
+        int slot = (int) Math.floorMod(second, (long) WINDOW_SECONDS);
+        long slotSecond = this.slotSeconds.get(slot);
+
+        // The first event of a new second clears the slot
+        if ((slotSecond != second) && this.slotSeconds.compareAndSet(slot, slotSecond, second)) {
+            this.slotCounts.set(slot, 0);
+        }
+
+        this.slotCounts.incrementAndGet(slot);
+    }
+
+    /**
+     * getCount
+     * Gets the number of events recorded.
+     * @return the event count
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * getOneMinuteRate
+     * Gets the average number of events per second over the last minute.
+     * @return the event rate per second
+     */
+    public double getOneMinuteRate() {
+        long now = currentSecond();
+        long events = 0;
+
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            long second = this.slotSeconds.get(i);
+
+            if ((second > now - WINDOW_SECONDS) && (second <= now)) {
+                events += this.slotCounts.get(i);
+            }
+        }
+
+        return events / (double) WINDOW_SECONDS;
+    }
+
+    /**
+     * currentSecond
+     * Gets the current second of the monotonic clock.
+     * @return the second
+     */
+    private static long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+}
@@ -0,0 +1,99 @@
+package metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Holds named metrics so they can be looked up and listed in one place.
+ * Asking for a metric which does not exist yet creates it.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class MetricsRegistry {
+    private final Map<String, Object> metrics;
+
+    /**
+     * Constructs an empty {@link MetricsRegistry}.
+     */
+    public MetricsRegistry() {
+        this.metrics = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * counter
+     * Gets or creates a counter.
+     * @param name the name of the counter
+     * @return the counter
+     * @throws IllegalArgumentException if the name belongs to another type of metric
+     */
+    public Counter counter(String name) {
+        return this.getOrCreate(name, Counter.class, Counter::new);
+    }
+
+    /**
+     * meter
+     * Gets or creates a meter.
+     * @param name the name of the meter
+     * @return the meter
+     * @throws IllegalArgumentException if the name belongs to another type of metric
+     */
+    public Meter meter(String name) {
+        return this.getOrCreate(name, Meter.class, Meter::new);
+    }
+
+    /**
+     * histogram
+     * Gets or creates a histogram.
+     * @param name the name of the histogram
+     * @return the histogram
+     * @throws IllegalArgumentException if the name belongs to another type of metric
+     */
+    public Histogram histogram(String name) {
+        return this.getOrCreate(name, Histogram.class, Histogram::new);
+    }
+
+    /**
+     * gauge
+     * Registers a gauge, keeping the existing one if the name is taken by a gauge.
+     * @param name the name of the gauge
+     * @param gauge the gauge
+     * @return the registered gauge
+     * @throws IllegalArgumentException if the name belongs to another type of metric
+     */
+    public Gauge gauge(String name, Gauge gauge) {
+        return this.getOrCreate(name, Gauge.class, () -> gauge);
+    }
+
+    /**
+     * getMetrics
+     * Gets every metric by name, in name order.
+     * @return an unmodifiable snapshot of the metrics
+     */
+    public SortedMap<String, Object> getMetrics() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(this.metrics));
+    }
+
+    /**
+     * getOrCreate
+     * Gets a metric of a type, creating it if the name is free.
+     * @param name the name of the metric
+     * @param type the type of the metric
+     * @param factory creates the metric
+     * @param <T> the type of the metric
+     * @return the metric
+     * @throws IllegalArgumentException if the name belongs to another type of metric
+     */
+    private <T> T getOrCreate(String name, Class<T> type, Supplier<T> factory) {
+        Object metric = this.metrics.computeIfAbsent(name, (key) -> factory.get());
+
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric '" + name + "' is not a " + type.getSimpleName());
+        }
+
+        return type.cast(metric);
+    }
+}
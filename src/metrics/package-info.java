@@ -0,0 +1,6 @@
+/**
+ * A package for in-process metrics, such as counters, rates and histograms, kept in a registry.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package metrics;
@@ -0,0 +1,123 @@
+package protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate compression of text payloads, used for {@link server.ServerCode#SUBMISSION_COMPRESSED}.
+ * A compressed payload starts with the four byte big-endian length of the UTF-8 text,
+ * so the receiver can size its buffer and refuse oversized text before inflating anything.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public final class Compression {
+    private static final int CHUNK_SIZE = 8192;
+
+    private Compression() {}
+
+    /**
+     * compress
+     * Compresses text into a payload.
+     * @param text the text to compress
+     * @return the length of the text followed by the deflated text
+     */
+    public static byte[] compress(String text) {
+        byte[] source = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater();
+        deflater.setInput(source);
+        deflater.finish();
+
+        ByteBuffer output = ByteBuffer.allocate(4 + CHUNK_SIZE);
+        output.putInt(source.length);
+
+        try {
+            while (!deflater.finished()) {
+                if (!output.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(output.capacity() * 2);
+                    output.flip();
+                    larger.put(output);
+                    output = larger;
+                }
+
+                int count = deflater.deflate(output.array(), output.position(), output.remaining());
+                output.position(output.position() + count);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        byte[] payload = new byte[output.position()];
+        System.arraycopy(output.array(), 0, payload, 0, payload.length);
+
+        return payload;
+    }
+
+    /**
+     * getTextLength
+     * Reads the length of the text a compressed payload holds.
+     * @param payload the compressed payload
+     * @return the length of the UTF-8 text in bytes
+     * @throws ProtocolException if the payload is too short or the length is invalid
+     */
+    public static int getTextLength(byte[] payload) throws ProtocolException {
+        if (payload.length < 4) {
+            throw new ProtocolException("Compressed payload is missing its length");
+        }
+
+        int length = ByteBuffer.wrap(payload).getInt();
+        Frame.checkLength(length);
+
+        return length;
+    }
+
+    /**
+     * decompress
+     * Inflates a compressed payload directly into a buffer of the declared length.
+     * @param payload the compressed payload
+     * @return the text
+     * @throws ProtocolException if the payload is not valid deflate data or does not match its length
+     */
+    public static String decompress(byte[] payload) throws ProtocolException {
+        byte[] text = new byte[getTextLength(payload)];
+        Inflater inflater = new Inflater();
+        inflater.setInput(payload, 4, payload.length - 4);
+
+        try {
+            int received = 0;
+            byte[] excess = new byte[1];
+
+            while (!inflater.finished()) {
+                int count;
+
+                if (received < text.length) {
+                    count = inflater.inflate(text, received, text.length - received);
+                } else {
+                    // Only the end of the stream may follow the declared length
+                    count = inflater.inflate(excess);
+                }
+
+                boolean stalled = (count == 0) && !inflater.finished()
+                        && (inflater.needsInput() || inflater.needsDictionary());
+
+                if ((received + count > text.length) || stalled) {
+                    throw new ProtocolException("Compressed payload does not match its length");
+                }
+
+                received += count;
+            }
+
+            if (received < text.length) {
+                throw new ProtocolException("Compressed payload does not match its length");
+            }
+        } catch (DataFormatException e) {
+            throw new ProtocolException("Invalid compressed payload: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+
+        return new String(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package protocol;
+
+import server.ServerCode;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single message of the client/host protocol.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Frame {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final ServerCode type;
+    private final byte[] payload;
+
+    /**
+     * Constructs a {@link Frame} without a payload.
+     * @param type the message type
+     */
+    public Frame(ServerCode type) {
+        this(type, EMPTY);
+    }
+
+    /**
+     * Constructs a {@link Frame} with a text payload.
+     * @param type the message type
+     * @param text the text, encoded as UTF-8
+     */
+    public Frame(ServerCode type, String text) {
+        this(type, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Constructs a {@link Frame} with a binary payload.
+     * @param type the message type
+     * @param payload the payload bytes
+     */
+    public Frame(ServerCode type, byte[] payload) {
+        this.type = type;
+        this.payload = payload;
+    }
+
+    /**
+     * getType
+     * Gets the message type.
+     * @return the message type
+     */
+    public ServerCode getType() {
+        return this.type;
+    }
+
+    /**
+     * getPayload
+     * Gets the raw payload bytes.
+     * @return the payload
+     */
+    public byte[] getPayload() {
+        return this.payload;
+    }
+
+    /**
+     * getText
+     * Decodes the payload as UTF-8 text.
+     * @return the payload text
+     */
+    public String getText() {
+        return new String(this.payload, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * encode
+     * Encodes the frame with its header into a buffer ready to be written.
+     * @return the encoded frame
+     */
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(Protocol.HEADER_SIZE + this.payload.length);
+        buffer.put((byte) this.type.ordinal());
+        buffer.putInt(this.payload.length);
+        buffer.put(this.payload);
+        buffer.flip();
+
+        return buffer;
+    }
+
+    /**
+     * decodeType
+     * Converts a type byte into a {@link ServerCode}.
+     * @param type the type byte
+     * @return the message type
+     * @throws ProtocolException if the byte is not a known message type
+     */
+    static ServerCode decodeType(int type) throws ProtocolException {
+        ServerCode[] codes = ServerCode.values();
+
+        if ((type < 0) || (type >= codes.length)) {
+            throw new ProtocolException("Unknown message type " + type);
+        }
+
+        return codes[type];
+    }
+
+    /**
+     * checkLength
+     * Validates a payload length read from a frame header.
+     * @param length the payload length
+     * @throws ProtocolException if the length is negative or too large
+     */
+    static void checkLength(int length) throws ProtocolException {
+        if ((length < 0) || (length > Protocol.MAX_PAYLOAD)) {
+            throw new ProtocolException("Invalid frame length " + length);
+        }
+    }
+}
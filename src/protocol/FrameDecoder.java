@@ -0,0 +1,120 @@
+package protocol;
+
+import server.ServerCode;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Incrementally decodes {@link Frame}s from non-blocking reads.
+ * Bytes may arrive split at any point; partial headers and payloads
+ * are kept until the rest of the frame arrives.
+ * Frames over the limit of their type are refused as soon as their header arrives.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FrameDecoder {
+    private final ByteBuffer header;
+    private final Map<ServerCode, Integer> limits;
+
+    /** The largest payload accepted for a type of frame without a limit of its own */
+    private int defaultLimit;
+    private ServerCode type;
+    private byte[] payload;
+    private int received;
+
+    /** Bytes of a refused payload which still have to be discarded */
+    private int skipping;
+
+    /**
+     * Constructs a {@link FrameDecoder}.
+     */
+    public FrameDecoder() {
+        this.header = ByteBuffer.allocate(Protocol.HEADER_SIZE);
+        this.limits = new EnumMap<>(ServerCode.class);
+        this.defaultLimit = Protocol.MAX_PAYLOAD;
+    }
+
+    /**
+     * limit
+     * Sets the largest payload accepted for a type of frame.
+     * @param type the frame type
+     * @param maxLength the largest payload length in bytes
+     */
+    public void limit(ServerCode type, int maxLength) {
+        this.limits.put(type, maxLength);
+    }
+
+    /**
+     * limitOthers
+     * Sets the largest payload accepted for every type of frame without a limit of its own.
+     * @param maxLength the largest payload length in bytes
+     */
+    public void limitOthers(int maxLength) {
+        this.defaultLimit = maxLength;
+    }
+
+    /**
+     * decode
+     * Consumes bytes from a buffer until a frame is complete or the buffer is empty.
+     * @param input the buffer to read from, in read mode
+     * @return the next complete frame, or null if more bytes are needed
+     * @throws FrameTooLargeException if a frame is over the limit of its type, after which decoding may continue
+     * @throws ProtocolException if the bytes are not a valid frame
+     */
+    public Frame decode(ByteBuffer input) throws ProtocolException {
+        // Discard a refused payload
+        if (this.skipping > 0) {
+            int count = Math.min(this.skipping, input.remaining());
+            input.position(input.position() + count);
+            this.skipping -= count;
+
+            if (this.skipping > 0) {
+                return null;
+            }
+        }
+
+        // Header
+        if (this.payload == null) {
+            while (this.header.hasRemaining() && input.hasRemaining()) {
+                this.header.put(input.get());
+            }
+
+            if (this.header.hasRemaining()) {
+                return null;
+            }
+
+            this.header.flip();
+            this.type = Frame.decodeType(this.header.get() & 0xFF);
+            int length = this.header.getInt();
+            this.header.clear();
+
+            Frame.checkLength(length);
+            int limit = this.limits.getOrDefault(this.type, this.defaultLimit);
+
+            if (length > limit) {
+                this.skipping = length;
+                throw new FrameTooLargeException(this.type, length, limit);
+            }
+
+            this.payload = new byte[length];
+            this.received = 0;
+        }
+
+        // Payload is copied in bulk
+        int count = Math.min(this.payload.length - this.received, input.remaining());
+        input.get(this.payload, this.received, count);
+        this.received += count;
+
+        if (this.received < this.payload.length) {
+            return null;
+        }
+
+        Frame frame = new Frame(this.type, this.payload);
+        this.type = null;
+        this.payload = null;
+
+        return frame;
+    }
+}
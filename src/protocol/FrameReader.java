@@ -0,0 +1,106 @@
+package protocol;
+
+import server.ServerCode;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Reads {@link Frame}s from a blocking input stream.
+ * Frames over the limit of their type are refused as soon as their header arrives.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FrameReader implements Closeable {
+    private final DataInputStream input;
+    private final Map<ServerCode, Integer> limits;
+
+    /** The largest payload accepted for a type of frame without a limit of its own */
+    private int defaultLimit;
+
+    /** Bytes of a refused payload which still have to be discarded */
+    private int skipping;
+
+    /**
+     * Constructs a {@link FrameReader}.
+     * @param input the stream to read from
+     */
+    public FrameReader(InputStream input) {
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        this.limits = new EnumMap<>(ServerCode.class);
+        this.defaultLimit = Protocol.MAX_PAYLOAD;
+    }
+
+    /**
+     * limit
+     * Sets the largest payload accepted for a type of frame.
+     * @param type the frame type
+     * @param maxLength the largest payload length in bytes
+     */
+    public void limit(ServerCode type, int maxLength) {
+        this.limits.put(type, maxLength);
+    }
+
+    /**
+     * limitOthers
+     * Sets the largest payload accepted for every type of frame without a limit of its own.
+     * @param maxLength the largest payload length in bytes
+     */
+    public void limitOthers(int maxLength) {
+        this.defaultLimit = maxLength;
+    }
+
+    /**
+     * read
+     * Blocks until a whole frame has been received.
+     * The payload is read with a single bulk read.
+     * @return the frame, or null if the stream ended between frames
+     * @throws FrameTooLargeException if a frame is over the limit of its type, after which reading may continue
+     * @throws IOException if an I/O error occurs or the stream ends mid-frame
+     */
+    public Frame read() throws IOException {
+        // Discard a refused payload without buffering it
+        if (this.skipping > 0) {
+            int count = this.skipping;
+            this.skipping = 0;
+            this.input.skipNBytes(count);
+        }
+
+        int type = this.input.read();
+
+        if (type == -1) {
+            return null;
+        }
+
+        ServerCode code = Frame.decodeType(type);
+        int length = this.input.readInt();
+        Frame.checkLength(length);
+        int limit = this.limits.getOrDefault(code, this.defaultLimit);
+
+        if (length > limit) {
+            this.skipping = length;
+            throw new FrameTooLargeException(code, length, limit);
+        }
+
+        byte[] payload = new byte[length];
+        this.input.readFully(payload);
+
+        return new Frame(code, payload);
+    }
+
+    /**
+     * close
+     * Closes the underlying stream.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+}
@@ -0,0 +1,44 @@
+package protocol;
+
+import server.ServerCode;
+
+/**
+ * Indicates that a frame's header announced a payload over the limit set for its type.
+ * The payload is skipped without being buffered, so reading may continue with the next frame.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FrameTooLargeException extends ProtocolException {
+    private final ServerCode type;
+    private final int length;
+
+    /**
+     * Constructs a {@link FrameTooLargeException}.
+     * @param type the type of the frame
+     * @param length the announced payload length
+     * @param limit the largest payload allowed for the type
+     */
+    public FrameTooLargeException(ServerCode type, int length, int limit) {
+        super(type + " frame of " + length + " bytes exceeds the limit of " + limit + " bytes");
+        this.type = type;
+        this.length = length;
+    }
+
+    /**
+     * getType
+     * Gets the type of the frame which was too large.
+     * @return the frame type
+     */
+    public ServerCode getType() {
+        return this.type;
+    }
+
+    /**
+     * getLength
+     * Gets the payload length the frame announced.
+     * @return the payload length
+     */
+    public int getLength() {
+        return this.length;
+    }
+}
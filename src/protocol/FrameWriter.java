@@ -0,0 +1,56 @@
+package protocol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes {@link Frame}s to a blocking output stream.
+ * Writes are synchronized so frames from different threads never interleave.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FrameWriter implements Closeable {
+    private final OutputStream output;
+
+    /**
+     * Constructs a {@link FrameWriter}.
+     * @param output the stream to write to
+     */
+    public FrameWriter(OutputStream output) {
+        this.output = output;
+    }
+
+    /**
+     * write
+     * Writes and flushes a whole frame.
+     * @param frame the frame to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Frame frame) throws IOException {
+        this.write(frame.encode());
+    }
+
+    /**
+     * write
+     * Writes and flushes a frame which has already been encoded.
+     * @param buffer the encoded frame
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void write(ByteBuffer buffer) throws IOException {
+        this.output.write(buffer.array(), buffer.position(), buffer.remaining());
+        this.output.flush();
+        buffer.position(buffer.limit());
+    }
+
+    /**
+     * close
+     * Closes the underlying stream.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+}
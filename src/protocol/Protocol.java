@@ -0,0 +1,126 @@
+package protocol;
+
+import server.ServerCode;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and helpers for the framed client/host protocol.
+ * Every message is sent as a frame made of a one byte {@link ServerCode} type,
+ * a four byte big-endian payload length, and the payload itself.
+ * A client opens a connection with a {@link ServerCode#HELLO} frame holding the
+ * protocol version, followed by a {@link ServerCode#REGISTER} frame holding its name.
+ * A client may send a {@link ServerCode#JOIN_LOBBY} frame before registering to join a lobby other than the default.
+ * The {@link ServerCode#ACCEPTED} reply carries a token which a client sends in a {@link ServerCode#RESUME} frame
+ * instead of registering to return to its session after its connection drops.
+ * A {@link ServerCode#HELLO} frame may also hold a bit set of optional features the client supports.
+ * The host answers such a frame with its own {@link ServerCode#HELLO} frame holding the features both sides support,
+ * while clients which send no features get no answer.
+ * Every accepted submission is answered with a {@link ServerCode#SUBMISSION_ACCEPTED} frame holding its hash,
+ * which later {@link ServerCode#SUBMISSION_PATCH} frames name as the source they apply to.
+ * Once the game starts, hosts which stream it send clients which asked to {@link ServerCode#SPECTATE}
+ * a {@link ServerCode#GAME_STATE} keyframe followed by a {@link ServerCode#GAME_DELTA} every cycle.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public final class Protocol {
+    /** The protocol version spoken by this build */
+    public static final int VERSION = 1;
+
+    /** The size of a frame header in bytes */
+    public static final int HEADER_SIZE = 5;
+
+    /** The largest payload accepted in a single frame */
+    public static final int MAX_PAYLOAD = 16 * 1024 * 1024;
+
+    /** The largest payload a host accepts in a frame which does not hold a submission, such as a name or token */
+    public static final int MAX_CONTROL_PAYLOAD = 4 * 1024;
+
+    /** Feature bit for submissions sent as {@link ServerCode#SUBMISSION_COMPRESSED} */
+    public static final int FEATURE_COMPRESSION = 1;
+
+    /** Feature bit for submissions sent as {@link ServerCode#SUBMISSION_PATCH} */
+    public static final int FEATURE_PATCH = 2;
+
+    /** Feature bit for watching the game through {@link ServerCode#SPECTATE}, which hosts only agree to if they stream games */
+    public static final int FEATURE_SPECTATE = 4;
+
+    /** The features supported by this build */
+    public static final int FEATURES = FEATURE_COMPRESSION | FEATURE_PATCH | FEATURE_SPECTATE;
+
+    private Protocol() {}
+
+    /**
+     * hello
+     * Creates the {@link ServerCode#HELLO} frame for this protocol version and every supported feature.
+     * @return the hello frame
+     */
+    public static Frame hello() {
+        return hello(FEATURES);
+    }
+
+    /**
+     * hello
+     * Creates a {@link ServerCode#HELLO} frame for this protocol version.
+     * @param features the feature bits to offer
+     * @return the hello frame
+     */
+    public static Frame hello(int features) {
+        return new Frame(ServerCode.HELLO, ByteBuffer.allocate(8).putInt(VERSION).putInt(features).array());
+    }
+
+    /**
+     * answer
+     * Creates the host's answer to a client's {@link ServerCode#HELLO} frame.
+     * @param hello the client's hello frame
+     * @return the hello frame holding the features both sides support,
+     *         or null if the client did not offer any features
+     */
+    public static Frame answer(Frame hello) {
+        return answer(hello, FEATURES);
+    }
+
+    /**
+     * answer
+     * Creates the host's answer to a client's {@link ServerCode#HELLO} frame.
+     * @param hello the client's hello frame
+     * @param features the feature bits the host supports
+     * @return the hello frame holding the features both sides support,
+     *         or null if the client did not offer any features
+     */
+    public static Frame answer(Frame hello, int features) {
+        if (hello.getPayload().length < 8) {
+            return null;
+        }
+
+        return hello(getFeatures(hello) & features);
+    }
+
+    /**
+     * getVersion
+     * Reads the protocol version from a {@link ServerCode#HELLO} frame.
+     * @param hello the hello frame
+     * @return the protocol version or -1 if the frame is malformed
+     */
+    public static int getVersion(Frame hello) {
+        if ((hello.getType() != ServerCode.HELLO) || (hello.getPayload().length < 4)) {
+            return -1;
+        }
+
+        return ByteBuffer.wrap(hello.getPayload()).getInt();
+    }
+
+    /**
+     * getFeatures
+     * Reads the feature bits from a {@link ServerCode#HELLO} frame.
+     * @param hello the hello frame
+     * @return the feature bits, or 0 if the frame holds none
+     */
+    public static int getFeatures(Frame hello) {
+        if ((hello.getType() != ServerCode.HELLO) || (hello.getPayload().length < 8)) {
+            return 0;
+        }
+
+        return ByteBuffer.wrap(hello.getPayload()).getInt(4);
+    }
+}
@@ -0,0 +1,18 @@
+package protocol;
+
+import java.io.IOException;
+
+/**
+ * Indicates that a peer sent data which does not follow the framed protocol.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ProtocolException extends IOException {
+    /**
+     * Constructs a {@link ProtocolException} with a message.
+     * @param message the error message
+     */
+    public ProtocolException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,270 @@
+package protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A patch which turns one source into another, sent as a {@link server.ServerCode#SUBMISSION_PATCH}.
+ * The patch names the source it applies to by its SHA-256 hash and holds a list of hunks, each replacing
+ * a range of the UTF-8 bytes of that source. Hunks are in ascending order and do not overlap.
+ * Encoded as the 32 byte hash, a four byte hunk count, then per hunk the offset, the number of bytes removed
+ * and the number of bytes inserted as four byte integers, followed by the inserted bytes.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class SourcePatch {
+    /** The size of a SHA-256 hash in bytes */
+    public static final int HASH_SIZE = 32;
+
+    private static final int HUNK_HEADER_SIZE = 12;
+
+    private final byte[] baseHash;
+    private final List<Hunk> hunks;
+
+    /**
+     * Constructs a {@link SourcePatch}.
+     * @param baseHash the hash of the source the patch applies to
+     * @param hunks the replacements, in ascending order
+     */
+    private SourcePatch(byte[] baseHash, List<Hunk> hunks) {
+        this.baseHash = baseHash;
+        this.hunks = hunks;
+    }
+
+    /**
+     * hash
+     * Hashes a source with SHA-256.
+     * @param source the source
+     * @return the hash of the UTF-8 bytes of the source
+     */
+    public static byte[] hash(String source) {
+        return hash(source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * hash
+     * Hashes the UTF-8 bytes of a source with SHA-256.
+     * @param source the UTF-8 bytes of the source
+     * @return the hash
+     */
+    public static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * diff
+     * Creates a patch which turns one source into another.
+     * The patch holds one hunk which replaces everything between the common prefix and suffix,
+     * which is compact for the usual edit in one part of a file.
+     * @param base the source the patch applies to
+     * @param target the source the patch produces
+     * @return the patch
+     */
+    public static SourcePatch diff(String base, String target) {
+        byte[] from = base.getBytes(StandardCharsets.UTF_8);
+        byte[] to = target.getBytes(StandardCharsets.UTF_8);
+        int limit = Math.min(from.length, to.length);
+
+        int prefix = 0;
+
+        while ((prefix < limit) && (from[prefix] == to[prefix])) {
+            prefix++;
+        }
+
+        int suffix = 0;
+
+        while ((suffix < limit - prefix) && (from[from.length - suffix - 1] == to[to.length - suffix - 1])) {
+            suffix++;
+        }
+
+        List<Hunk> hunks = new ArrayList<>();
+
+        if ((prefix < from.length - suffix) || (prefix < to.length - suffix)) {
+            byte[] inserted = Arrays.copyOfRange(to, prefix, to.length - suffix);
+            hunks.add(new Hunk(prefix, from.length - suffix - prefix, inserted));
+        }
+
+        return new SourcePatch(hash(base), hunks);
+    }
+
+    /**
+     * decode
+     * Reads a patch from a payload.
+     * @param payload the encoded patch
+     * @return the patch
+     * @throws ProtocolException if the payload is not a valid patch
+     */
+    public static SourcePatch decode(byte[] payload) throws ProtocolException {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+
+        if (buffer.remaining() < HASH_SIZE + 4) {
+            throw new ProtocolException("Patch is missing its header");
+        }
+
+        byte[] baseHash = new byte[HASH_SIZE];
+        buffer.get(baseHash);
+        int count = buffer.getInt();
+        List<Hunk> hunks = new ArrayList<>();
+        int end = 0;
+
+        for (int i = 0; i < count; i++) {
+            if (buffer.remaining() < HUNK_HEADER_SIZE) {
+                throw new ProtocolException("Patch is missing a hunk");
+            }
+
+            int offset = buffer.getInt();
+            int removed = buffer.getInt();
+            int length = buffer.getInt();
+
+            // Hunks must be in order, must not overlap and must fit in the payload
+            if ((offset < end) || (removed < 0) || ((long) offset + removed > Integer.MAX_VALUE)
+                    || (length < 0) || (length > buffer.remaining())) {
+                throw new ProtocolException("Invalid patch hunk");
+            }
+
+            byte[] inserted = new byte[length];
+            buffer.get(inserted);
+            hunks.add(new Hunk(offset, removed, inserted));
+            end = offset + removed;
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new ProtocolException("Trailing bytes after patch");
+        }
+
+        return new SourcePatch(baseHash, hunks);
+    }
+
+    /**
+     * encode
+     * Writes the patch into a payload.
+     * @return the encoded patch
+     */
+    public byte[] encode() {
+        int size = HASH_SIZE + 4;
+
+        for (Hunk hunk : this.hunks) {
+            size += HUNK_HEADER_SIZE + hunk.inserted.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(this.baseHash);
+        buffer.putInt(this.hunks.size());
+
+        for (Hunk hunk : this.hunks) {
+            buffer.putInt(hunk.offset);
+            buffer.putInt(hunk.removed);
+            buffer.putInt(hunk.inserted.length);
+            buffer.put(hunk.inserted);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * getBaseHash
+     * Gets the hash of the source the patch applies to.
+     * @return the SHA-256 hash of the base source
+     */
+    public byte[] getBaseHash() {
+        return this.baseHash.clone();
+    }
+
+    /**
+     * appliesTo
+     * Checks if the patch was made against a source.
+     * @param hash the SHA-256 hash of the source
+     * @return if the hashes match
+     */
+    public boolean appliesTo(byte[] hash) {
+        return (hash != null) && MessageDigest.isEqual(this.baseHash, hash);
+    }
+
+    /**
+     * getResultLength
+     * Gets the size of the source the patch produces, so it can be checked before the source is built.
+     * @param baseLength the size of the base source in bytes
+     * @return the size of the result in bytes
+     */
+    public long getResultLength(int baseLength) {
+        long length = baseLength;
+
+        for (Hunk hunk : this.hunks) {
+            length += hunk.inserted.length - (long) hunk.removed;
+        }
+
+        return length;
+    }
+
+    /**
+     * apply
+     * Applies the patch to a source.
+     * @param base the UTF-8 bytes of the source the patch was made against
+     * @return the patched source
+     * @throws ProtocolException if a hunk lies outside the source
+     */
+    public String apply(byte[] base) throws ProtocolException {
+        long resultLength = this.getResultLength(base.length);
+
+        if ((resultLength < 0) || (resultLength > Protocol.MAX_PAYLOAD)) {
+            throw new ProtocolException("Invalid patch length " + resultLength);
+        }
+
+        byte[] result = new byte[(int) resultLength];
+        int position = 0;
+        int copied = 0;
+
+        for (Hunk hunk : this.hunks) {
+            if ((long) hunk.offset + hunk.removed > base.length) {
+                throw new ProtocolException("Patch hunk lies outside the source");
+            }
+
+            // Unchanged bytes before the hunk, then the inserted bytes
+            int unchanged = hunk.offset - copied;
+            System.arraycopy(base, copied, result, position, unchanged);
+            position += unchanged;
+
+            System.arraycopy(hunk.inserted, 0, result, position, hunk.inserted.length);
+            position += hunk.inserted.length;
+
+            copied = hunk.offset + hunk.removed;
+        }
+
+        System.arraycopy(base, copied, result, position, base.length - copied);
+
+        return new String(result, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A replacement of a range of bytes.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Hunk {
+        private final int offset;
+        private final int removed;
+        private final byte[] inserted;
+
+        /**
+         * Constructs a {@link Hunk}.
+         * @param offset where the range starts in the base source
+         * @param removed the length of the range
+         * @param inserted the bytes which replace the range
+         */
+        public Hunk(int offset, int removed, byte[] inserted) {
+            this.offset = offset;
+            this.removed = removed;
+            this.inserted = inserted;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * A package for classes related to the framed client/host message protocol.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package protocol;
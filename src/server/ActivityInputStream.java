@@ -0,0 +1,62 @@
+package server;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which reports every read which returns data,
+ * so a client sending a large frame is known to be alive before the whole frame has arrived.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class ActivityInputStream extends FilterInputStream {
+    private final Runnable onActivity;
+
+    /**
+     * Constructs an {@link ActivityInputStream}.
+     * @param input the stream to read from
+     * @param onActivity called after every read which returns at least one byte
+     */
+    ActivityInputStream(InputStream input, Runnable onActivity) {
+        super(input);
+        this.onActivity = onActivity;
+    }
+
+    /**
+     * read
+     * Reads a byte, reporting it if one was read.
+     * @return the byte, or -1 if the stream ended
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+
+        if (value != -1) {
+            this.onActivity.run();
+        }
+
+        return value;
+    }
+
+    /**
+     * read
+     * Reads bytes into part of an array, reporting them if any were read.
+     * @param buffer the array to read into
+     * @param offset the index of the first byte to read into
+     * @param length the most bytes to read
+     * @return the number of bytes read, or -1 if the stream ended
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+
+        if (count > 0) {
+            this.onActivity.run();
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,15 @@
+package server;
+
+/**
+ * Constants for specifying the outcome of sending a message to a single client.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum DeliveryStatus {
+    /** The message was fully written to the client socket */
+    DELIVERED,
+    /** The message was not written before the deadline and the client was evicted */
+    TIMED_OUT,
+    /** The client socket failed or closed before the message was written */
+    FAILED,
+}
@@ -0,0 +1,146 @@
+package server;
+
+import client.ClientConnection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed timing wheel which drives the heartbeats of every client of a {@link HostServer}
+ * from a single thread.
+ * Clients are spread across the slots of the wheel and each tick visits one slot,
+ * so every client is visited once per heartbeat interval and the work of a
+ * large lobby is split evenly across the interval instead of arriving at once.
+ * Clients which have not been heard from within the timeout are expired together,
+ * and dropped clients whose resume grace window has passed are removed once per revolution.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class HeartbeatWheel extends Thread {
+    private static final int WHEEL_SIZE = 16;
+
+    private final HostServer server;
+    private final List<Set<ClientConnection>> slots;
+    private final AtomicInteger nextSlot;
+    private final long tickNanos;
+    private final long timeoutNanos;
+
+    private volatile boolean running;
+
+    /**
+     * Constructs a {@link HeartbeatWheel}.
+     * @param server the server whose clients are sent heartbeats
+     * @param interval the time between heartbeats to a client in milliseconds
+     * @param timeout the time a client may stay silent in milliseconds
+     */
+    HeartbeatWheel(HostServer server, long interval, long timeout) {
+        super("HostServer-Heartbeat");
+        this.setDaemon(true);
+
+        this.server = server;
+        this.slots = new ArrayList<>();
+        this.nextSlot = new AtomicInteger();
+        this.tickNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(interval) / WHEEL_SIZE);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        this.running = true;
+
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.slots.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * add
+     * Starts sending heartbeats to a client.
+     * @param client the client connection
+     */
+    void add(ClientConnection client) {
+        client.markSeen();
+
+        // Round-robin keeps the slots evenly filled
+        int slot = Math.floorMod(this.nextSlot.getAndIncrement(), WHEEL_SIZE);
+        this.slots.get(slot).add(client);
+    }
+
+    /**
+     * remove
+     * Stops sending heartbeats to a client.
+     * @param client the client connection
+     */
+    void remove(ClientConnection client) {
+        for (Set<ClientConnection> slot : this.slots) {
+            if (slot.remove(client)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * shutdown
+     * Stops the wheel.
+     */
+    void shutdown() {
+        this.running = false;
+        this.interrupt();
+    }
+
+    /**
+     * run
+     * Advances the wheel one slot per tick until it is shut down.
+     */
+    @Override
+    public void run() {
+        long deadline = System.nanoTime();
+        int cursor = 0;
+
+        while (this.running) {
+            // Sleep until the next tick, scheduling from the previous deadline to avoid drift
+            deadline += this.tickNanos;
+            long delay = deadline - System.nanoTime();
+
+            if (delay > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            this.tick(this.slots.get(cursor));
+            cursor = (cursor + 1) % WHEEL_SIZE;
+
+            // Dropped clients only need to be checked once per revolution
+            if (cursor == 0) {
+                this.server.expireParked();
+            }
+        }
+    }
+
+    /**
+     * tick
+     * Sends heartbeats to the clients of a slot and expires dead ones.
+     * @param slot the clients to visit
+     */
+    private void tick(Set<ClientConnection> slot) {
+        long now = System.nanoTime();
+        List<ClientConnection> dead = new ArrayList<>();
+
+        for (ClientConnection client : slot) {
+            if (now - client.getLastSeen() > this.timeoutNanos) {
+                dead.add(client);
+            } else if (!this.server.sendHeartbeat(client)) {
+                dead.add(client);
+            }
+        }
+
+        if (!dead.isEmpty()) {
+            slot.removeAll(dead);
+            this.server.getMetrics().recordHeartbeatFailures(dead.size());
+            this.server.expire(dead);
+        }
+    }
+}
@@ -2,178 +2,1209 @@ package server;
 
 import client.ClientConnection;
 import function.Procedure;
+import game.GameState;
+import loader.BackgroundCompiler;
+import loader.ClassCache;
+import loader.ObjectLoader;
+import protocol.Compression;
+import protocol.Frame;
+import protocol.FrameDecoder;
+import protocol.FrameReader;
+import protocol.FrameTooLargeException;
+import protocol.FrameWriter;
+import protocol.Protocol;
+import protocol.ProtocolException;
+import protocol.SourcePatch;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
 import java.net.InetAddress;
-import java.net.ServerSocket;
-import java.net.SocketException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.security.SecureRandom;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A multithreaded host server which handles client connections and runs the game.
+ * Clients are routed into {@link Lobby lobbies} which each run their own game,
+ * and the methods of the server itself act on the default lobby.
  * @author Harry Xu
  * @version 1.0 - December 20th 2023
  */
 public class HostServer {
-    /** Functions to call when a socket successfully connects */
-    private final List<Procedure> onConnectSubscribers;
+    /** The types of frame which hold a code submission */
+    static final Set<ServerCode> SUBMISSION_TYPES = EnumSet.of(
+            ServerCode.SUBMISSION_FINISHED, ServerCode.SUBMISSION_COMPRESSED, ServerCode.SUBMISSION_PATCH);
 
-    /** Functions to call when a socket disconnects */
-    private final List<Procedure> onDisconnectSubscribers;
+    /** How long closing the server waits for queued writes to reach storage, in milliseconds */
+    private static final long STORAGE_TIMEOUT = 10000;
 
-    /** Functions to call when a client submits their code */
-    private final List<Procedure> onSubmissionSubscribers;
+    private final ServerSocketChannel serverChannel;
 
-    private final ServerSocket serverSocket;
-    private final Set<ClientConnection> connections;
-    private final Set<String> nameSet;
+    /** Every open lobby by name */
+    private final Map<String, Lobby> lobbies;
+    private final Lobby defaultLobby;
 
-    private volatile ServerState state;
+    /** The lobby of every registered client */
+    private final Map<ClientConnection, Lobby> members;
+
+    /** The resume token of every registered client, and the reverse */
+    private final Map<ClientConnection, String> tokens;
+    private final Map<String, ClientConnection> tokenOwners;
+
+    /** Dropped clients which may still resume by token */
+    private final Map<String, ParkedClient> parked;
+
+    /** How long a dropped client may take to resume in nanoseconds */
+    private final long resumeGrace;
+    private final SecureRandom random;
+
+    /** Handlers of registered clients in {@link ServerMode#THREADED} and {@link ServerMode#VIRTUAL} modes */
+    private final Map<ClientConnection, ClientHandler> handlers;
+
+    /** Runs client handlers and broadcasts, or null in {@link ServerMode#SELECTOR} mode */
+    private final ExecutorService executor;
+
+    /** The maximum number of messages waiting to be written to each client */
+    private final int outboundCapacity;
+
+    /** What to do when a client's outbound queue is full */
+    private final OverflowPolicy overflowPolicy;
+
+    /** How long a broadcast may take to reach each client in milliseconds */
+    private final long broadcastTimeout;
+
+    /** The event loop used in {@link ServerMode#SELECTOR} mode */
+    private final SelectorThread selectorThread;
+
+    /** Sends heartbeats to every registered client */
+    private final HeartbeatWheel heartbeats;
+
+    /** Sizes of the submissions received */
+    private final SubmissionStats submissionStats;
+
+    /** Connection and submission metrics, exposed over JMX while serving */
+    private final HostServerMetrics metrics;
+
+    /** The largest source a client may submit in bytes */
+    private final int maxSubmissionSize;
+
+    /** How many submissions a client may send at once, and how long it takes to earn one more in nanoseconds */
+    private final int submissionBurst;
+    private final long submissionInterval;
+
+    /** The submission rate limit of every client in a lobby, if submissions are rate limited */
+    private final Map<ClientConnection, TokenBucket> submissionLimits;
+
+    /** The optional protocol features the host agrees to */
+    private final int features;
+
+    /** Every distinct source submitted, or null if submissions are only kept in memory */
+    private final SubmissionArchive archive;
+
+    /** The log of registrations and submissions which survives a restart, or null if there is no storage directory */
+    private final LobbyJournal journal;
+
+    /** Writes to storage one at a time, so no client thread waits on the disk, or null if there is no storage directory */
+    private final ExecutorService storage;
+
+    /** The bytecode of sources compiled before, or null if compiled classes are not kept */
+    private final ClassCache classCache;
+
+    /** Compiles submissions as they arrive, or null if they are only compiled when the game starts */
+    private final BackgroundCompiler compiler;
+
+    /**
+     * Constructs a {@link HostServer} which runs a thread per client.
+     * @throws IOException if an I/O error occurs when opening the socket.
+     */
+    public HostServer() throws IOException {
+        this(ServerMode.THREADED);
+    }
+
+    /**
+     * Constructs a {@link HostServer} with an I/O mode and default settings.
+     * @param mode how client socket I/O is performed
+     * @throws IOException if an I/O error occurs when opening the socket.
+     */
+    public HostServer(ServerMode mode) throws IOException {
+        this(createConfig(mode));
+    }
+
+    /**
+     * Constructs a {@link HostServer} with custom settings.
+     * @param config the server settings
+     * @throws IOException if an I/O error occurs when opening the socket.
+     */
+    public HostServer(ServerConfig config) throws IOException {
+        // Opened first, so a broken archive fails before the port is taken
+        if (config.getStorageDirectory() != null) {
+            this.archive = SubmissionArchive.open(config.getStorageDirectory());
+            this.journal = LobbyJournal.open(config.getStorageDirectory());
+            this.storage = Executors.newSingleThreadExecutor((task) -> {
+                Thread thread = new Thread(task, "HostServer-Storage");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.archive = null;
+            this.journal = null;
+            this.storage = null;
+        }
+
+        if ((config.getStorageDirectory() != null) && (config.getClassCacheSize() > 0)) {
+            this.classCache = ClassCache.open(config.getStorageDirectory().resolve(ClassCache.DIRECTORY), config.getClassCacheSize());
+        } else {
+            this.classCache = null;
+        }
+
+        // Port 0 (the default) gets an auto-allocated port
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(config.getPort()));
+
+        this.lobbies = new ConcurrentHashMap<>();
+        this.defaultLobby = new Lobby(this, Lobby.DEFAULT_NAME);
+        this.lobbies.put(this.defaultLobby.getName(), this.defaultLobby);
+        this.members = new ConcurrentHashMap<>();
+        this.tokens = new ConcurrentHashMap<>();
+        this.tokenOwners = new ConcurrentHashMap<>();
+        this.parked = new ConcurrentHashMap<>();
+        this.handlers = new ConcurrentHashMap<>();
+
+        // A single event loop handles every client in selector mode,
+        // otherwise every client gets its own (platform or virtual) thread
+        if (config.getMode() == ServerMode.SELECTOR) {
+            this.selectorThread = new SelectorThread(this, this.serverChannel, config);
+            this.executor = null;
+        } else if (config.getMode() == ServerMode.VIRTUAL) {
+            this.selectorThread = null;
+            this.executor = createVirtualExecutor();
+        } else {
+            this.selectorThread = null;
+            this.executor = Executors.newCachedThreadPool();
+        }
+
+        this.outboundCapacity = config.getOutboundCapacity();
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.broadcastTimeout = config.getBroadcastTimeout();
+        this.resumeGrace = TimeUnit.MILLISECONDS.toNanos(config.getResumeGrace());
+        this.random = new SecureRandom();
+        this.submissionStats = new SubmissionStats();
+        this.metrics = new HostServerMetrics(this.members::size, this.submissionStats);
+        this.maxSubmissionSize = config.getMaxSubmissionSize();
+        this.submissionBurst = config.getSubmissionBurst();
+        this.submissionInterval = TimeUnit.MILLISECONDS.toNanos(config.getSubmissionInterval());
+        this.submissionLimits = new ConcurrentHashMap<>();
+
+        if (config.isSpectatorStreaming()) {
+            this.features = Protocol.FEATURES;
+        } else {
+            this.features = Protocol.FEATURES & ~Protocol.FEATURE_SPECTATE;
+        }
+
+        this.heartbeats = new HeartbeatWheel(this, config.getHeartbeatInterval(), config.getHeartbeatTimeout());
+
+        if (config.getCompileWorkers() > 0) {
+            this.compiler = new BackgroundCompiler(config.getCompileWorkers(), this.classCache);
+        } else {
+            this.compiler = null;
+        }
+
+        if (this.journal != null) {
+            this.restore();
+        }
+
+        // JVM shutdown hook to close server when program exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                this.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }));
+    }
+
+    /**
+     * createConfig
+     * Creates the default settings with an I/O mode.
+     * @param mode how client socket I/O is performed
+     * @return the server settings
+     */
+    private static ServerConfig createConfig(ServerMode mode) {
+        ServerConfig config = new ServerConfig();
+        config.setMode(mode);
+
+        return config;
+    }
+
+    /**
+     * createVirtualExecutor
+     * Creates an executor which runs each task on a new virtual thread.
+     * Falls back to a platform thread pool on JVMs without virtual threads.
+     * @return the executor
+     */
+    private static ExecutorService createVirtualExecutor() {
+        // Looked up reflectively so the project still builds on JDKs older than 21
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads are not supported by this JVM, using platform threads instead.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * restore
+     * Restores the lobbies and sessions recorded in the journal before the host restarted.
+     * Every session is parked as if its client had just dropped, so the client can resume it
+     * with its token within the resume grace window, keeping its name and submission.
+     */
+    private void restore() {
+        for (Map.Entry<String, ServerState> entry : this.journal.getLobbyStates().entrySet()) {
+            Lobby lobby = this.lobbies.get(entry.getKey());
+
+            if (lobby == null) {
+                lobby = this.createLobby(entry.getKey());
+            }
+
+            lobby.restoreState(entry.getValue());
+        }
+
+        long deadline = System.nanoTime() + this.resumeGrace;
+
+        for (LobbyJournal.Session session : this.journal.getSessions()) {
+            Lobby lobby = this.lobbies.get(session.getLobby());
+            ClientConnection client = new ClientConnection();
+
+            if ((lobby == null) || !lobby.add(client, session.getName())) {
+                continue;
+            }
+
+            if (session.getCodeHash() != null) {
+                try {
+                    String code = this.archive.get(session.getCodeHash());
+
+                    if (code != null) {
+                        client.setCode(code, session.getSubmissionTime());
+                        this.precompile(client);
+                    }
+                } catch (IOException e) {
+                    System.out.println("Failed to restore " + session.getName() + "'s submission.");
+                }
+            }
+
+            if (this.submissionInterval > 0) {
+                this.submissionLimits.put(client, new TokenBucket(this.submissionBurst, this.submissionInterval));
+            }
+
+            boolean nextScreenSent = lobby.getState() == ServerState.CORRESPONDING;
+            this.parked.put(session.getToken(), new ParkedClient(client, lobby, nextScreenSent, deadline));
+        }
+    }
+
+    /**
+     * serve
+     * Starts the server.
+     */
+    public void serve() {
+        this.metrics.register(this.getPort());
+        this.heartbeats.start();
+
+        if (this.selectorThread != null) {
+            this.selectorThread.start();
+            return;
+        }
+
+        ServerThread serverThread = new ServerThread();
+        serverThread.start();
+    }
+
+    /**
+     * onConnect
+     * Adds a listener function to call when a client socket connects to the default lobby.
+     * @param subscriber the callback function
+     */
+    public void onConnect(Procedure subscriber) {
+        this.defaultLobby.onConnect(subscriber);
+    }
+
+    /**
+     * onDisconnect
+     * Adds a listener function to call when a client socket disconnects from the default lobby.
+     * @param subscriber the callback function
+     */
+    public void onDisconnect(Procedure subscriber) {
+        this.defaultLobby.onDisconnect(subscriber);
+    }
+
+    /**
+     * onSubmit
+     * Adds a listener function to call when a client socket in the default lobby submits code
+     * @param subscriber the callback function
+     */
+    public void onSubmit(Procedure subscriber) {
+        this.defaultLobby.onSubmit(subscriber);
+    }
+
+    /**
+     * getInetAddress
+     * Gets the ip address of the socket.
+     * @return the ip address
+     */
+    public InetAddress getInetAddress() {
+        try {
+            return InetAddress.getLocalHost();
+        } catch (UnknownHostException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * getPort
+     * Gets the port of the socket.
+     * @return the port
+     */
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * getNumConnections
+     * Gets the number of concurrent connections in the default lobby.
+     * @return the number of connections
+     */
+    public int getNumConnections() {
+        return this.defaultLobby.getNumConnections();
+    }
+
+    /**
+     * getConnections
+     * Gets the connection pool of the default lobby
+     * @return the connection pool
+     */
+    public Set<ClientConnection> getConnections() {
+        return this.defaultLobby.getConnections();
+    }
+
+    /**
+     * setState
+     * Changes the state of the default lobby.
+     * Clients are sent the {@link ServerCode#NEXT_SCREEN} message as soon as submissions open.
+     * @param state the new server state
+     */
+    public void setState(ServerState state) {
+        this.defaultLobby.setState(state);
+    }
+
+    /**
+     * getState
+     * Gets the current state of the default lobby.
+     * @return the server state
+     */
+    public ServerState getState() {
+        return this.defaultLobby.getState();
+    }
+
+    /**
+     * getSubmissionStats
+     * Gets the number and size of the submissions received by every lobby.
+     * @return the submission statistics
+     */
+    public SubmissionStats getSubmissionStats() {
+        return this.submissionStats;
+    }
+
+    /**
+     * getMetrics
+     * Gets the connection and submission metrics of every lobby.
+     * @return the metrics
+     */
+    public HostServerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * getArchive
+     * Gets the archive of every distinct source submitted to the server.
+     * @return the submission archive, or null if no storage directory was configured
+     */
+    public SubmissionArchive getArchive() {
+        return this.archive;
+    }
+
+    /**
+     * getClassCache
+     * Gets the cache of classes compiled from submissions.
+     * @return the class cache, or null if no storage directory was configured or compiled classes are not kept
+     */
+    public ClassCache getClassCache() {
+        return this.classCache;
+    }
+
+    /**
+     * createLobby
+     * Opens a new lobby which clients can join by name.
+     * @param name the name of the lobby
+     * @return the new lobby
+     * @throws IllegalArgumentException if a lobby with the name is already open
+     */
+    public Lobby createLobby(String name) {
+        Lobby lobby = new Lobby(this, name);
+
+        if (this.lobbies.putIfAbsent(name, lobby) != null) {
+            throw new IllegalArgumentException("Lobby '" + name + "' already exists");
+        }
+
+        return lobby;
+    }
+
+    /**
+     * getLobby
+     * Gets an open lobby by name.
+     * @param name the name of the lobby
+     * @return the lobby, or null if no lobby with the name is open
+     */
+    public Lobby getLobby(String name) {
+        return this.lobbies.get(name);
+    }
+
+    /**
+     * getDefaultLobby
+     * Gets the lobby joined by clients which do not ask for one.
+     * @return the default lobby
+     */
+    public Lobby getDefaultLobby() {
+        return this.defaultLobby;
+    }
+
+    /**
+     * getLobbies
+     * Gets every open lobby.
+     * @return the open lobbies
+     */
+    public Collection<Lobby> getLobbies() {
+        return this.lobbies.values();
+    }
+
+    /**
+     * broadcast
+     * Attempts to broadcast a {@link ServerCode} to all clients in the default lobby.
+     * The code is written to every client concurrently, so a slow client does not delay the others.
+     * Clients which do not receive the code within the broadcast timeout are evicted.
+     * @param code the code ot broadcast
+     * @return a future which completes with the delivery status of every client
+     *         once each has been delivered to, failed, or timed out
+     */
+    public CompletableFuture<Map<ClientConnection, DeliveryStatus>> broadcast(ServerCode code) {
+        return this.defaultLobby.broadcast(code);
+    }
+
+    /**
+     * broadcast
+     * Attempts to broadcast a {@link ServerCode} to a group of clients.
+     * @param clients the clients to broadcast to
+     * @param code the code ot broadcast
+     * @return a future which completes with the delivery status of every client
+     * @see #broadcast(ServerCode)
+     */
+    CompletableFuture<Map<ClientConnection, DeliveryStatus>> broadcast(Collection<ClientConnection> clients, ServerCode code) {
+        Frame frame = new Frame(code);
+        Map<ClientConnection, CompletableFuture<DeliveryStatus>> deliveries = new HashMap<>();
+        long start = System.nanoTime();
+
+        for (ClientConnection client : clients) {
+            CompletableFuture<DeliveryStatus> delivery = this.sendAsync(client, frame)
+                    .orTimeout(this.broadcastTimeout, TimeUnit.MILLISECONDS)
+                    .handle((result, error) -> this.toDeliveryStatus(client, error));
+
+            deliveries.put(client, delivery);
+        }
+
+        return CompletableFuture
+                .allOf(deliveries.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply((ignored) -> {
+                    Map<ClientConnection, DeliveryStatus> statuses = new HashMap<>();
+
+                    for (Map.Entry<ClientConnection, CompletableFuture<DeliveryStatus>> entry : deliveries.entrySet()) {
+                        statuses.put(entry.getKey(), entry.getValue().join());
+                    }
+
+                    this.metrics.recordBroadcast(System.nanoTime() - start);
+
+                    return statuses;
+                });
+    }
+
+    /**
+     * stream
+     * Sends the state of the default lobby's game to its spectators.
+     * @param state the game state after the latest update cycle
+     * @see Lobby#stream(GameState)
+     */
+    public void stream(GameState state) {
+        this.defaultLobby.stream(state);
+    }
+
+    /**
+     * stream
+     * Queues a frame to a group of clients without waiting for space in their queues.
+     * Clients which cannot keep up miss the frame rather than slowing down or being disconnected.
+     * @param clients the clients to send to
+     * @param frame the frame to send
+     */
+    void stream(Collection<ClientConnection> clients, Frame frame) {
+        for (ClientConnection client : clients) {
+            if (this.selectorThread != null) {
+                this.selectorThread.send(client, frame);
+                continue;
+            }
+
+            ClientHandler handler = this.handlers.get(client);
+
+            if (handler != null) {
+                handler.send(frame, false);
+            }
+        }
+    }
+
+    /**
+     * sendAsync
+     * Writes a frame to a client without blocking the calling thread.
+     * @param client the client connection
+     * @param frame the frame to write
+     * @return a future which completes once the frame is written
+     */
+    private CompletableFuture<Void> sendAsync(ClientConnection client, Frame frame) {
+        if (this.selectorThread != null) {
+            return this.selectorThread.sendAsync(client, frame);
+        }
+
+        ClientHandler handler = this.handlers.get(client);
+
+        if (handler == null) {
+            return CompletableFuture.failedFuture(new IOException("Client " + client.getName() + " has no handler"));
+        }
+
+        OutboundMessage message = handler.send(frame, true);
+
+        if (message == null) {
+            if (this.overflowPolicy != OverflowPolicy.DROP) {
+                this.expire(List.of(client));
+            }
+
+            return CompletableFuture.failedFuture(new IOException("Outbound queue of client " + client.getName() + " is full"));
+        }
+
+        // Copied so callers cannot complete a message shared by coalesced heartbeats
+        return message.getWritten().copy();
+    }
+
+    /**
+     * toDeliveryStatus
+     * Converts the outcome of a write into a {@link DeliveryStatus},
+     * evicting the client if the write timed out.
+     * @param client the client connection
+     * @param error the error the write failed with, or null if it succeeded
+     * @return the delivery status
+     */
+    private DeliveryStatus toDeliveryStatus(ClientConnection client, Throwable error) {
+        if (error == null) {
+            return DeliveryStatus.DELIVERED;
+        }
+
+        if (error instanceof CompletionException) {
+            error = error.getCause();
+        }
+
+        if (error instanceof TimeoutException) {
+            this.expire(List.of(client));
+            return DeliveryStatus.TIMED_OUT;
+        }
+
+        System.out.println("Failed to broadcast to client " + client.getName() + ".");
+        return DeliveryStatus.FAILED;
+    }
+
+    /**
+     * close
+     * Closes the server.
+     * @throws IOException if an I/O error occurs when closing the socket
+     */
+    public void close() throws IOException {
+        synchronized (serverChannel) {
+            serverChannel.close();
+        }
+
+        // Writes which were already queued still reach the disk
+        if (this.storage != null) {
+            this.storage.shutdown();
+
+            try {
+                if (!this.storage.awaitTermination(STORAGE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    System.out.println("Timed out writing submissions to storage.");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Closed before the lobbies, so a host which stops before its game starts can restore them
+        if (this.journal != null) {
+            this.journal.close();
+        }
+
+        for (Lobby lobby : this.lobbies.values()) {
+            lobby.setState(ServerState.CLOSED);
+        }
+
+        this.heartbeats.shutdown();
+        this.metrics.unregister();
+
+        if (this.archive != null) {
+            this.archive.close();
+        }
+
+        // Compiles already queued still finish while the game starts
+        if (this.compiler != null) {
+            this.compiler.close();
+        }
+
+        if (this.selectorThread != null) {
+            this.selectorThread.wakeup();
+        } else {
+            // Running handlers finish once their clients disconnect
+            this.executor.shutdown();
+        }
+    }
+
+    /**
+     * findLobby
+     * Finds the lobby a client asked to join.
+     * @param name the name of the lobby, or null for the default lobby
+     * @return the lobby, or null if no lobby with the name is open
+     */
+    Lobby findLobby(String name) {
+        if (name == null) {
+            return this.defaultLobby;
+        }
+
+        return this.lobbies.get(name);
+    }
+
+    /**
+     * removeLobby
+     * Closes a lobby to new clients and disconnects the clients in it.
+     * The default lobby can always be found by name.
+     * @param lobby the lobby to remove
+     */
+    void removeLobby(Lobby lobby) {
+        if (lobby != this.defaultLobby) {
+            this.lobbies.remove(lobby.getName(), lobby);
+        }
+
+        // Dropped clients of the lobby can no longer resume
+        for (Map.Entry<String, ParkedClient> entry : this.parked.entrySet()) {
+            if ((entry.getValue().getLobby() == lobby) && this.parked.remove(entry.getKey(), entry.getValue())) {
+                this.leave(lobby, entry.getValue().getClient());
+            }
+        }
+
+        this.expire(new ArrayList<>(lobby.getConnections()));
+    }
+
+    /**
+     * stateChanged
+     * Reacts to the state of a lobby changing.
+     * @param lobby the lobby whose state changed
+     */
+    void stateChanged(Lobby lobby) {
+        if (this.journal != null) {
+            String name = lobby.getName();
+            ServerState state = lobby.getState();
+            this.store(() -> this.journal.stateChanged(name, state));
+        }
+
+        // Let the event loop react to the new state
+        if (this.selectorThread != null) {
+            this.selectorThread.stateChanged(lobby);
+            return;
+        }
+
+        if (lobby.getState() == ServerState.CORRESPONDING) {
+            for (ClientHandler handler : this.handlers.values()) {
+                if (handler.lobby == lobby) {
+                    handler.sendNextScreen();
+                }
+            }
+        }
+    }
+
+    /**
+     * register
+     * Attempts to register a client in a lobby under a name.
+     * Calls the lobby's connect listeners if the name is not taken.
+     * @param client the client connection
+     * @param lobby the lobby to join
+     * @param name the requested name
+     * @return the client's resume token, or null if the name was taken
+     */
+    String register(ClientConnection client, Lobby lobby, String name) {
+        // Recorded before the connect listeners run, so the client can always be disconnected
+        members.put(client, lobby);
+
+        if (!lobby.add(client, name)) {
+            members.remove(client);
+            return null;
+        }
+
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        tokens.put(client, token);
+        tokenOwners.put(token, client);
+        heartbeats.add(client);
+
+        if (submissionInterval > 0) {
+            submissionLimits.put(client, new TokenBucket(submissionBurst, submissionInterval));
+        }
+
+        if (journal != null) {
+            String lobbyName = lobby.getName();
+            store(() -> journal.registered(lobbyName, name, token));
+        }
+
+        return token;
+    }
+
+    /**
+     * resume
+     * Attaches a new connection to the session of a client which dropped.
+     * A session whose old connection has not been noticed as dropped yet is taken over.
+     * @param token the resume token issued when the client registered
+     * @param transport the new connection of the client
+     * @return the resumed session, whose client now uses the new connection,
+     *         or null if the token is unknown or expired
+     */
+    ParkedClient resume(String token, ClientConnection transport) {
+        if (token == null) {
+            return null;
+        }
+
+        // Expiring a connection which has not been noticed as dropped yet parks its session
+        ClientConnection owner = tokenOwners.get(token);
+
+        if (owner != null) {
+            expire(List.of(owner));
+        }
+
+        ParkedClient parkedClient = parked.remove(token);
+
+        if (parkedClient == null) {
+            return null;
+        }
+
+        ClientConnection client = parkedClient.getClient();
+        Lobby lobby = parkedClient.getLobby();
+
+        // The game has already started without the client
+        if (lobby.getState() == ServerState.CLOSED) {
+            leave(lobby, client);
+            return null;
+        }
+
+        client.reattach(transport);
+
+        members.put(client, lobby);
+        tokens.put(client, token);
+        tokenOwners.put(token, client);
+        heartbeats.add(client);
+
+        return parkedClient;
+    }
+
+    /**
+     * expireParked
+     * Removes dropped clients whose resume grace window has passed.
+     */
+    void expireParked() {
+        long now = System.nanoTime();
+
+        for (Map.Entry<String, ParkedClient> entry : parked.entrySet()) {
+            ParkedClient parkedClient = entry.getValue();
+
+            if ((now - parkedClient.getDeadline() > 0) && parked.remove(entry.getKey(), parkedClient)) {
+                leave(parkedClient.getLobby(), parkedClient.getClient());
+            }
+        }
+    }
+
+    /**
+     * leave
+     * Removes a client from its lobby for good.
+     * @param lobby the lobby of the client
+     * @param client the client connection
+     */
+    private void leave(Lobby lobby, ClientConnection client) {
+        submissionLimits.remove(client);
+
+        if (journal != null) {
+            String lobbyName = lobby.getName();
+            String name = client.getName();
+            store(() -> journal.left(lobbyName, name));
+        }
+
+        lobby.remove(client);
+    }
+
+    /**
+     * limitFrames
+     * Makes a reader refuse submissions over the size limit, and every other frame over the control limit,
+     * as soon as their header arrives.
+     * Compressed submissions and patches are only sent when they are smaller than the source, so they share the limit.
+     * @param input the reader of a client connection
+     */
+    void limitFrames(FrameReader input) {
+        input.limitOthers(Protocol.MAX_CONTROL_PAYLOAD);
+
+        for (ServerCode type : SUBMISSION_TYPES) {
+            input.limit(type, maxSubmissionSize);
+        }
+    }
 
     /**
-     * Constructs a {@link HostServer}.
-     * @throws IOException if an I/O error occurs when opening the socket.
+     * limitFrames
+     * Makes a decoder refuse submissions over the size limit, and every other frame over the control limit,
+     * as soon as their header arrives.
+     * @param decoder the decoder of a client connection
      */
-    public HostServer() throws IOException {
-        this.onConnectSubscribers = new ArrayList<>();
-        this.onDisconnectSubscribers = new ArrayList<>();
-        this.onSubmissionSubscribers = new ArrayList<>();
+    void limitFrames(FrameDecoder decoder) {
+        decoder.limitOthers(Protocol.MAX_CONTROL_PAYLOAD);
 
-        // Use port 0 to get auto-allocated port
-        this.serverSocket = new ServerSocket(0);
-
-        // Use "ConcurrentHashMap.newKeySet()" to create a concurrent set
-        // which is both thread-safe and more performant than a synchronized set
-        this.connections = ConcurrentHashMap.newKeySet();
-        this.nameSet = ConcurrentHashMap.newKeySet();
+        for (ServerCode type : SUBMISSION_TYPES) {
+            decoder.limit(type, maxSubmissionSize);
+        }
+    }
 
-        // Default server state
-        this.state = ServerState.ACCEPTING;
+    /**
+     * rejectOversized
+     * Refuses a submission which was too large to be read.
+     * @param e the error raised when the submission's header arrived
+     * @return the reply to send to the client, or null if the frame was not a submission
+     */
+    Frame rejectOversized(FrameTooLargeException e) {
+        if (!isSubmission(e.getType())) {
+            return null;
+        }
 
-        // JVM shutdown hook to close server when program exits
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            try {
-                this.close();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }));
+        return reject(tooLarge(e.getLength()));
     }
 
     /**
-     * serve
-     * Starts the server.
+     * tooLarge
+     * Explains why a submission is over the size limit.
+     * @param sourceBytes the size of the submission
+     * @return the reason sent to the client
      */
-    public void serve() {
-        ServerThread serverThread = new ServerThread();
-        serverThread.start();
+    private String tooLarge(long sourceBytes) {
+        return "Submission of " + sourceBytes + " bytes exceeds the limit of " + maxSubmissionSize + " bytes";
     }
 
     /**
-     * onConnect
-     * Adds a listener function to call when a client socket connects.
-     * @param subscriber the callback function
+     * submit
+     * Stores a client's submitted code and calls its lobby's submit listeners.
+     * Submissions sent while the lobby is not {@link ServerState#CORRESPONDING}, over the size limit
+     * or over the client's rate limit are refused instead.
+     * Compressed submissions are inflated straight into the buffer of the source, and patches are applied
+     * to the client's previous submission. Listeners are not called if the source did not change.
+     * @param client the client connection
+     * @param submission a frame for which {@link #isSubmission(ServerCode)} holds
+     * @return a future which completes with the reply to send to the client once the source has been stored,
+     * or with null if the submission was ignored
+     * @throws ProtocolException if a compressed submission or patch is malformed
      */
-    public void onConnect(Procedure subscriber) {
-        this.onConnectSubscribers.add(subscriber);
+    CompletableFuture<Frame> submit(ClientConnection client, Frame submission) throws ProtocolException {
+        Lobby lobby = members.get(client);
+
+        if (lobby == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Checked here so every server mode refuses submissions outside the submission phase the same way
+        if (lobby.getState() != ServerState.CORRESPONDING) {
+            return CompletableFuture.completedFuture(reject("Submissions are closed"));
+        }
+
+        long start = System.nanoTime();
+        byte[] payload = submission.getPayload();
+        boolean compressed = submission.getType() == ServerCode.SUBMISSION_COMPRESSED;
+        SourcePatch patch = null;
+        long sourceBytes;
+
+        // Sizes are checked before anything is inflated or patched
+        if (submission.getType() == ServerCode.SUBMISSION_PATCH) {
+            patch = SourcePatch.decode(payload);
+
+            // The client sends the whole source instead, which does not use up another submission
+            if (!patch.appliesTo(client.getCodeHash())) {
+                return CompletableFuture.completedFuture(new Frame(ServerCode.SUBMISSION_RESYNC, "Previous submission not found"));
+            }
+
+            sourceBytes = patch.getResultLength(client.getCodeSize());
+        } else if (compressed) {
+            sourceBytes = Compression.getTextLength(payload);
+        } else {
+            sourceBytes = payload.length;
+        }
+
+        if (sourceBytes > maxSubmissionSize) {
+            return CompletableFuture.completedFuture(reject(tooLarge(sourceBytes)));
+        }
+
+        TokenBucket limit = submissionLimits.get(client);
+
+        if ((limit != null) && !limit.tryAcquire()) {
+            long waitSeconds = (TimeUnit.NANOSECONDS.toMillis(limit.getWaitNanos()) + 999) / 1000;
+            return CompletableFuture.completedFuture(reject("Too many submissions, try again in " + waitSeconds + " seconds"));
+        }
+
+        String code;
+
+        if (patch != null) {
+            code = client.patchCode(patch);
+
+            // Replaced by another submission since the check
+            if (code == null) {
+                return CompletableFuture.completedFuture(new Frame(ServerCode.SUBMISSION_RESYNC, "Previous submission not found"));
+            }
+        } else if (compressed) {
+            code = Compression.decompress(payload);
+        } else {
+            code = submission.getText();
+        }
+
+        this.submissionStats.record(sourceBytes, payload.length, compressed);
+
+        CompletableFuture<Void> stored = CompletableFuture.completedFuture(null);
+
+        // An unchanged source needs no new compilation or listener calls
+        if (client.updateCode(code)) {
+            String lobbyName = lobby.getName();
+            String name = client.getName();
+            byte[] codeHash = client.getCodeHash();
+            LocalTime submissionTime = client.getSubmissionTime();
+
+            // The journal only refers to sources which are already in the archive
+            stored = this.store(() -> {
+                this.archive(code);
+
+                if (this.journal != null) {
+                    this.journal.submitted(lobbyName, name, codeHash, submissionTime);
+                }
+            });
+
+            this.precompile(client);
+            lobby.submit();
+        }
+
+        Frame accepted = new Frame(ServerCode.SUBMISSION_ACCEPTED, client.getCodeHash());
+
+        return stored.thenApply((ignored) -> {
+            this.metrics.recordSubmission(sourceBytes, System.nanoTime() - start);
+            return accepted;
+        });
     }
 
     /**
-     * onDisconnect
-     * Adds a listener function to call when a client socket disconnects.
-     * @param subscriber the callback function
+     * store
+     * Runs a write to the archive or journal on the storage thread, after every write queued before it.
+     * Journal records keep the order they were queued in, and compacting the journal also runs on the storage thread.
+     * Writes queued once the server has closed are skipped.
+     * @param write the write to run
+     * @return a future which completes once the write has run
      */
-    public void onDisconnect(Procedure subscriber) {
-        this.onDisconnectSubscribers.add(subscriber);
+    private CompletableFuture<Void> store(Runnable write) {
+        if (this.storage == null) {
+            write.run();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        try {
+            return CompletableFuture.runAsync(write, this.storage);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
     }
 
     /**
-     * onSubmit
-     * Adds a listener function to call when a client socket submits code
-     * @param subscriber the callback function
+     * archive
+     * Stores an accepted source in the submission archive, if there is one.
+     * The submission is still accepted if the source cannot be stored.
+     * @param code the source
      */
-    public void onSubmit(Procedure subscriber) {
-        this.onSubmissionSubscribers.add(subscriber);
+    private void archive(String code) {
+        if (this.archive == null) {
+            return;
+        }
+
+        try {
+            this.archive.put(code);
+        } catch (IOException e) {
+            System.out.println("Failed to archive a submission: " + e.getMessage());
+        }
     }
 
     /**
-     * getInetAddress
-     * Gets the ip address of the socket.
-     * @return the ip address
+     * precompile
+     * Starts compiling a client's submitted code in the background, if submissions are compiled ahead of the game.
+     * @param client the client which submitted code
      */
-    public InetAddress getInetAddress() {
-        try {
-            return InetAddress.getLocalHost();
-        } catch (UnknownHostException e) {
-            throw new RuntimeException(e);
+    private void precompile(ClientConnection client) {
+        if (this.compiler != null) {
+            this.compiler.submit(client);
         }
     }
 
     /**
-     * getPort
-     * Gets the port of the socket.
-     * @return the port
+     * reject
+     * Counts a refused submission and creates the reply which tells the client why.
+     * @param reason the reason the submission was refused
+     * @return the {@link ServerCode#SUBMISSION_REJECTED} frame
      */
-    public int getPort() {
-        return this.serverSocket.getLocalPort();
+    private Frame reject(String reason) {
+        metrics.recordSubmissionRejected();
+
+        return new Frame(ServerCode.SUBMISSION_REJECTED, reason);
     }
 
     /**
-     * getNumConnections
-     * Gets the number of concurrent connections.
-     * @return the number of connections
+     * answer
+     * Creates the answer to a client's {@link ServerCode#HELLO} frame.
+     * @param hello the client's hello frame
+     * @return the hello frame holding the features both sides support, or null if the client offered none
      */
-    public int getNumConnections() {
-        return this.connections.size();
+    Frame answer(Frame hello) {
+        return Protocol.answer(hello, this.features);
     }
 
     /**
-     * getConnections
-     * Gets the connection pool of the server
-     * @return the connection pool
+     * spectate
+     * Subscribes a client to the game of its lobby, if the host streams games.
+     * The client gets a keyframe after the next update cycle.
+     * @param client the client connection
      */
-    public Set<ClientConnection> getConnections() {
-        return this.connections;
+    void spectate(ClientConnection client) {
+        Lobby lobby = members.get(client);
+
+        if ((lobby != null) && ((this.features & Protocol.FEATURE_SPECTATE) != 0)) {
+            lobby.spectate(client);
+        }
     }
 
     /**
-     * setState
-     * Changes the server state.
-     * @param state the new server state
+     * isSubmission
+     * Checks if a type of frame holds a code submission.
+     * @param type the frame type
+     * @return if the type is a plain, compressed or patch submission
      */
-    public void setState(ServerState state) {
-        this.state = state;
+    static boolean isSubmission(ServerCode type) {
+        return SUBMISSION_TYPES.contains(type);
     }
 
     /**
-     * broadcast
-     * Attempts to broadcast a {@link ServerCode} to all clients.
-     * @param code the code ot broadcast
+     * disconnect
+     * Removes a client from its lobby and calls the lobby's disconnect listeners.
+     * While its lobby is open, the client keeps its name and submission until the resume grace window passes.
+     * @param client the client connection
+     */
+    void disconnect(ClientConnection client) {
+        Lobby lobby = members.remove(client);
+
+        if (lobby == null) {
+            return;
+        }
+
+        heartbeats.remove(client);
+
+        String token = tokens.remove(client);
+
+        if (token != null) {
+            tokenOwners.remove(token, client);
+        }
+
+        if ((token != null) && (resumeGrace > 0) && (lobby.getState() != ServerState.CLOSED)) {
+            boolean nextScreenSent = lobby.getState() == ServerState.CORRESPONDING;
+            parked.put(token, new ParkedClient(client, lobby, nextScreenSent, System.nanoTime() + resumeGrace));
+            return;
+        }
+
+        leave(lobby, client);
+    }
+
+    /**
+     * sendHeartbeat
+     * Queues a {@link ServerCode#HEARTBEAT} message to a client without ever waiting for space.
+     * @param client the client connection
+     * @return false if the client could not be written to or must be disconnected
      */
-    public void broadcast(ServerCode code) {
-        BroadcastThread broadcastThread = new BroadcastThread(code);
-        broadcastThread.start();
+    boolean sendHeartbeat(ClientConnection client) {
+        Frame heartbeat = new Frame(ServerCode.HEARTBEAT);
+
+        if (this.selectorThread != null) {
+            return this.selectorThread.send(client, heartbeat);
+        }
+
+        ClientHandler handler = this.handlers.get(client);
+
+        // The handler has not finished registering the client yet
+        if (handler == null) {
+            return true;
+        }
+
+        // A heartbeat which does not fit is skipped unless full queues disconnect clients
+        return (handler.send(heartbeat, false) != null) || (this.overflowPolicy != OverflowPolicy.DISCONNECT);
     }
 
     /**
-     * close
-     * Closes the server.
-     * @throws IOException if an I/O error occurs when closing the socket
+     * expire
+     * Closes and disconnects clients which stopped responding to heartbeats.
+     * @param dead the unresponsive clients
      */
-    public void close() throws IOException {
-        synchronized (serverSocket) {
-            serverSocket.close();
-            state = ServerState.CLOSED;
+    void expire(List<ClientConnection> dead) {
+        for (ClientConnection client : dead) {
+            if (this.selectorThread != null) {
+                this.selectorThread.drop(client);
+                continue;
+            }
+
+            try {
+                client.close();
+            } catch (IOException e) {
+                System.out.println("Error occurred while attempting to close client socket");
+            }
+
+            disconnect(client);
         }
     }
 
@@ -184,21 +1215,21 @@ public class HostServer {
      */
     private class ServerThread extends Thread {
         public void run() {
-            while (state == ServerState.ACCEPTING) {
+            // Lobbies which are not accepting players reject clients during registration
+            while (serverChannel.isOpen()) {
                 // Accept connection
                 ClientConnection client;
 
                 try {
-                    client = new ClientConnection(serverSocket.accept());
+                    client = new ClientConnection(serverChannel.accept());
                 } catch (IOException e) {
                     continue;
                 }
 
-                // Dispatch client connection to helper thread
+                // Dispatch client connection to a helper thread
                 try {
-                    HandlerThread handlerThread = new HandlerThread(client);
-                    handlerThread.start();
-                } catch (IOException e) {
+                    executor.execute(new ClientHandler(client));
+                } catch (IOException | RejectedExecutionException e) {
                     System.out.println("An error occured while attempting to connection to the client");
                 }
             }
@@ -207,44 +1238,166 @@ public class HostServer {
 
     /**
      * Handles an individual client connection.
+     * Frames are queued by any thread and written by a drain task on the executor,
+     * so threads sending to a slow client never wait on its socket.
      * @author Harry Xu
      * @version 1.0 - December 24th 2023
      */
-    private class HandlerThread extends Thread {
-        private final ClientConnection client;
-        private final BufferedReader input;
-        private final BufferedWriter output;
+    private class ClientHandler implements Runnable {
+        /** The socket handled, which stays the same if the client resumes onto another connection */
+        private final Socket socket;
+        private final FrameReader input;
+        private final FrameWriter output;
+        private final OutboundQueue queue;
+        private final AtomicBoolean nextScreenSent;
+
+        /** The lobby the client joined, or null while registering */
+        private volatile Lobby lobby;
+
+        /** The client, replaced by its earlier session if it resumes */
+        private volatile ClientConnection client;
+
+        /** If a drain task has been scheduled */
+        private final AtomicBoolean draining;
 
         /**
-         * Constructs a {@link HandlerThread} with a client connections.
+         * Constructs a {@link ClientHandler} with a client connections.
          * @param client the client to handle
          * @throws IOException if an error occurs while accessing the client socket's I/O streams
          */
-        public HandlerThread(ClientConnection client) throws IOException {
+        public ClientHandler(ClientConnection client) throws IOException {
             this.client = client;
-            this.input = new BufferedReader(new InputStreamReader(this.client.getSocket().getInputStream()));
-            this.output = new BufferedWriter(new OutputStreamWriter(this.client.getSocket().getOutputStream()));
+            this.socket = client.getSocket();
+            // Every read shows the client is alive, even partway through a large frame
+            this.input = new FrameReader(new ActivityInputStream(this.socket.getInputStream(), () -> this.client.markSeen()));
+            limitFrames(this.input);
+            this.output = new FrameWriter(this.socket.getOutputStream());
+            this.queue = new OutboundQueue(outboundCapacity, overflowPolicy);
+            this.nextScreenSent = new AtomicBoolean(false);
+            this.draining = new AtomicBoolean(false);
+        }
+
+        /**
+         * send
+         * Queues a frame to be written to the client.
+         * @param frame the frame to write
+         * @param mayBlock if the calling thread may wait for space in the queue
+         * @return the message which carries the frame, or null if the queue was full or closed
+         */
+        public OutboundMessage send(Frame frame, boolean mayBlock) {
+            OutboundMessage message = this.queue.offer(frame, mayBlock);
+
+            if (message != null) {
+                this.scheduleDrain();
+            }
+
+            return message;
         }
 
         /**
-         * createHeartbeat
-         * Schedules a task to repeatedly send messages to the client socket to ensure accurate client pool.
-         * @return the timer used to schedule the task
+         * scheduleDrain
+         * Starts a drain task unless one is already running.
          */
-        public Timer createHeartbeat() {
-            Timer heartbeat = new Timer();
-            TimerTask heartbeatTask;
+        private void scheduleDrain() {
+            if (!this.draining.compareAndSet(false, true)) {
+                return;
+            }
 
             try {
-                heartbeatTask = new SocketHeartbeat(client);
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                this.queue.close(e);
+            }
+        }
+
+        /**
+         * drain
+         * Writes queued frames to the client until the queue is empty.
+         */
+        private void drain() {
+            try {
+                OutboundMessage message;
+
+                while ((message = this.queue.peek()) != null) {
+                    metrics.recordBytesOut(message.getBuffer().remaining());
+                    this.output.write(message.getBuffer());
+                    this.queue.poll();
+                    message.getWritten().complete(null);
+                }
             } catch (IOException e) {
-                System.out.println("Cannot open heartbeat thread");
-                throw new RuntimeException(e);
+                this.queue.close(e);
+                this.expireClient();
+                return;
+            }
+
+            this.draining.set(false);
+
+            // A frame may have been queued after the last check
+            if (!this.queue.isEmpty()) {
+                this.scheduleDrain();
+            }
+        }
+
+        /**
+         * sendNextScreen
+         * Sends the {@link ServerCode#NEXT_SCREEN} message to the client once.
+         */
+        public void sendNextScreen() {
+            if (!this.nextScreenSent.compareAndSet(false, true)) {
+                return;
+            }
+
+            if ((this.send(new Frame(ServerCode.NEXT_SCREEN), true) == null) && (overflowPolicy != OverflowPolicy.DROP)) {
+                System.out.println("Failed to send next screen to client " + this.client.getName() + ".");
+                this.expireClient();
+            }
+        }
+
+        /**
+         * read
+         * Blocks until a whole frame arrives from the client.
+         * @return the frame, or null if the client closed the connection
+         * @throws IOException if an I/O error occurs
+         */
+        private Frame read() throws IOException {
+            Frame frame = this.input.read();
+
+            if (frame != null) {
+                metrics.recordBytesIn(Protocol.HEADER_SIZE + frame.getPayload().length);
             }
 
-            heartbeat.schedule(heartbeatTask, 0, 500);
+            return frame;
+        }
+
+        /**
+         * write
+         * Writes a frame straight to the client, bypassing the queue, before it has registered.
+         * @param frame the frame to write
+         * @throws IOException if an I/O error occurs
+         */
+        private void write(Frame frame) throws IOException {
+            metrics.recordBytesOut(Protocol.HEADER_SIZE + frame.getPayload().length);
+            this.output.write(frame);
+        }
+
+        /**
+         * ownsClient
+         * Checks if the client still uses the socket of this handler,
+         * which stops being true once it resumes onto another connection.
+         * @return if this handler's socket belongs to the client
+         */
+        private boolean ownsClient() {
+            return this.client.getSocket() == this.socket;
+        }
 
-            return heartbeat;
+        /**
+         * expireClient
+         * Disconnects the client unless it has resumed onto another connection.
+         */
+        private void expireClient() {
+            if (this.ownsClient()) {
+                expire(List.of(this.client));
+            }
         }
 
         /**
@@ -253,9 +1406,17 @@ public class HostServer {
          * @throws IOException If an I/O error occurs
          */
         public void close() throws IOException {
+            handlers.remove(this.client, this);
+
+            if (this.ownsClient()) {
+                disconnect(this.client);
+            }
+
+            this.queue.close(new ClosedChannelException());
+
             this.input.close();
             this.output.close();
-            this.client.getSocket().close();
+            this.socket.close();
         }
 
         /**
@@ -264,60 +1425,121 @@ public class HostServer {
          * @throws IOException If an I/O error occurs
          */
         public void handle() throws IOException {
-            // Check for valid name
-            String name = this.input.readLine();
+            // Check for a supported protocol version
+            Frame hello = this.read();
 
-            if (nameSet.contains(name)) {
-                this.output.write(ServerCode.DISCONNECT.ordinal());
-                this.output.flush();
+            if ((hello == null) || (Protocol.getVersion(hello) != Protocol.VERSION)) {
+                this.write(new Frame(ServerCode.DISCONNECT, "Unsupported protocol version"));
                 return;
             }
 
-            this.client.setName(name);
-            nameSet.add(name);
-            connections.add(this.client);
+            // Agree on optional features with clients which offer any
+            Frame answer = answer(hello);
+
+            if (answer != null) {
+                this.write(answer);
+            }
+
+            Frame registration = this.read();
+            Lobby lobby;
+            String token;
+
+            if ((registration != null) && (registration.getType() == ServerCode.RESUME)) {
+                // Return to the session of a dropped connection
+                token = registration.getText();
+                ParkedClient parkedClient = resume(token, this.client);
+
+                if (parkedClient == null) {
+                    this.write(new Frame(ServerCode.DISCONNECT, "Session expired"));
+                    return;
+                }
+
+                this.client = parkedClient.getClient();
+                this.nextScreenSent.set(parkedClient.isNextScreenSent());
+                lobby = parkedClient.getLobby();
+            } else {
+                // Check for an open lobby, the default lobby is joined if none is requested
+                String lobbyName = null;
+
+                if ((registration != null) && (registration.getType() == ServerCode.JOIN_LOBBY)) {
+                    lobbyName = registration.getText();
+                    registration = this.read();
+                }
+
+                if ((registration == null) || (registration.getType() != ServerCode.REGISTER)) {
+                    return;
+                }
+
+                lobby = findLobby(lobbyName);
 
-            // Call connect listeners
-            synchronized (onConnectSubscribers) {
-                for (Procedure onConnect : onConnectSubscribers) {
-                    onConnect.execute();
+                if (lobby == null) {
+                    this.write(new Frame(ServerCode.DISCONNECT, "Lobby '" + lobbyName + "' does not exist"));
+                    return;
+                }
+
+                if (lobby.getState() != ServerState.ACCEPTING) {
+                    this.write(new Frame(ServerCode.DISCONNECT, "Lobby '" + lobby.getName() + "' is not accepting players"));
+                    return;
+                }
+
+                // Check for valid name, which becomes part of the player's class name
+                String name = registration.getText();
+
+                if (!ObjectLoader.isValidName(name)) {
+                    this.write(new Frame(ServerCode.DISCONNECT, "Name '" + name + "' is not a valid Java identifier"));
+                    return;
+                }
+
+                token = register(this.client, lobby, name);
+
+                if (token == null) {
+                    this.write(new Frame(ServerCode.DISCONNECT, "Name '" + name + "' taken"));
+                    return;
                 }
             }
 
-            // Heartbeat
-            Timer heartbeat = createHeartbeat();
+            // Everything after registration goes through the queue
+            this.lobby = lobby;
+            this.send(new Frame(ServerCode.ACCEPTED, token), false);
+            handlers.put(this.client, this);
 
-            StringBuilder code = new StringBuilder();
-            boolean broadcastNext = false;
+            // Submissions may have opened while the client was registering
+            if (lobby.getState() == ServerState.CORRESPONDING) {
+                this.sendNextScreen();
+            }
+
+            // Block on the socket until the client closes it,
+            // every byte read (including heartbeat replies) shows the client is alive
+            while (true) {
+                Frame frame;
 
-            while (state != ServerState.CLOSED) {
-                if (state == ServerState.CORRESPONDING) {
-                    // Send next screen message to client
-                    if (!broadcastNext) {
-                        heartbeat.cancel();
+                try {
+                    frame = this.read();
+                } catch (FrameTooLargeException e) {
+                    Frame rejection = rejectOversized(e);
 
-                        this.output.flush();
-                        this.output.write(ServerCode.NEXT_SCREEN.ordinal());
-                        this.output.flush();
-                        broadcastNext = true;
+                    if (rejection == null) {
+                        throw e;
                     }
 
-                    // Read sent code
-                    int c = this.input.read();
+                    // The oversized payload is skipped by the next read
+                    this.send(rejection, false);
+                    continue;
+                }
 
-                    if (c != ServerCode.SUBMISSION_FINISHED.ordinal()) {
-                        code.append((char) c);
-                    } else {
-                        this.client.setCode(code.toString());
-                        code = new StringBuilder();
+                if (frame == null) {
+                    return;
+                }
 
-                        // Call submit listeners
-                        synchronized (onSubmissionSubscribers) {
-                            for (Procedure onSubmit: onSubmissionSubscribers) {
-                                onSubmit.execute();
-                            }
+                if (isSubmission(frame.getType())) {
+                    // Replies once the source is stored, which may be after later frames are read
+                    submit(this.client, frame).thenAccept((reply) -> {
+                        if (reply != null) {
+                            this.send(reply, false);
                         }
-                    }
+                    });
+                } else if (frame.getType() == ServerCode.SPECTATE) {
+                    spectate(this.client);
                 }
             }
         }
@@ -332,7 +1554,7 @@ public class HostServer {
                 this.handle();
             } catch (IOException e) {
                 // Connection reset is thrown when the host closes the clients
-                if (!e.getMessage().equals("Connection reset")) {
+                if (!"Connection reset".equals(e.getMessage()) && !this.socket.isClosed()) {
                     System.out.println("Error occurred while handling client socket.");
                 }
             } finally {
@@ -344,89 +1566,4 @@ public class HostServer {
             }
         }
     }
-
-    /**
-     * Sends a message to the client socket to verify its aliveness.
-     * @author Harry Xu
-     * @version 1.0 - December 24th 2023
-     */
-    private class SocketHeartbeat extends TimerTask {
-        private final ClientConnection client;
-        private final OutputStreamWriter output;
-
-        /**
-         * Instantiates a {@link SocketHeartbeat} with a client connection.
-         * @throws IOException if an I/O error occurs
-         */
-        public SocketHeartbeat(ClientConnection client) throws IOException {
-            this.client = client;
-            this.output = new OutputStreamWriter(client.getSocket().getOutputStream());
-        }
-
-        /**
-         * run
-         * Handles the client socket connection.
-         */
-        @Override
-        public void run() {
-            try {
-                this.output.write(ServerCode.HEARTBEAT.ordinal());
-                this.output.flush();
-            } catch (SocketException e) {
-                // Socket closed
-                connections.remove(client);
-
-                // Remove name from name set
-                String clientName = client.getName();
-
-                if (clientName != null) {
-                    nameSet.remove(clientName);
-                }
-
-                // Call disconnect listeners
-                synchronized (onDisconnectSubscribers) {
-                    for (Procedure onDisconnect : onDisconnectSubscribers) {
-                        onDisconnect.execute();
-                    }
-                }
-
-                // Cancel task
-                this.cancel();
-            } catch (IOException e) {
-				System.out.println("An error occurred while attempting to write to the client");
-
-                // Cancel task
-                this.cancel();
-            }
-        }
-    }
-
-    private class BroadcastThread extends Thread {
-        private final ServerCode code;
-
-        public BroadcastThread(ServerCode code) {
-            this.code = code;
-        }
-
-        @Override
-        public void run() {
-            for (ClientConnection connection : connections) {
-                OutputStreamWriter output;
-
-                try {
-                    output = new OutputStreamWriter(connection.getSocket().getOutputStream());
-                } catch (IOException e) {
-                    System.out.println("Unable to establish broadcast connection to client " + connection.getName() + ".");
-                    continue;
-                }
-
-                try {
-                    output.write(this.code.ordinal());
-                    output.flush();
-                } catch (IOException e) {
-                    System.out.println("Failed to broadcast to client " + connection.getName() + ".");
-                }
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,297 @@
+package server;
+
+import metrics.Counter;
+import metrics.Gauge;
+import metrics.Histogram;
+import metrics.Meter;
+import metrics.MetricsRegistry;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Connection and submission metrics of a {@link HostServer}.
+ * The metrics are kept in a {@link MetricsRegistry} and exposed over JMX while the server runs.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class HostServerMetrics implements HostServerMetricsMBean {
+    /** Durations are recorded in microseconds and shown in milliseconds */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final MetricsRegistry registry;
+    private final SubmissionStats submissionStats;
+
+    private final Gauge activeConnections;
+    private final Meter connects;
+    private final Meter disconnects;
+    private final Counter heartbeatFailures;
+    private final Counter bytesIn;
+    private final Counter bytesOut;
+    private final Counter submissionRejections;
+    private final Histogram submissionSizes;
+    private final Histogram submissionLatency;
+    private final Histogram broadcastDuration;
+
+    /** The name the metrics are registered under, or null while not registered */
+    private ObjectName objectName;
+
+    /**
+     * Constructs a {@link HostServerMetrics}.
+     * @param activeConnections reads the number of registered clients
+     * @param submissionStats the sizes of received submissions
+     */
+    HostServerMetrics(Gauge activeConnections, SubmissionStats submissionStats) {
+        this.registry = new MetricsRegistry();
+        this.submissionStats = submissionStats;
+
+        this.activeConnections = this.registry.gauge("connections.active", activeConnections);
+        this.connects = this.registry.meter("connections.connects");
+        this.disconnects = this.registry.meter("connections.disconnects");
+        this.heartbeatFailures = this.registry.counter("heartbeats.failures");
+        this.bytesIn = this.registry.counter("bytes.in");
+        this.bytesOut = this.registry.counter("bytes.out");
+        this.submissionRejections = this.registry.counter("submissions.rejected");
+        this.submissionSizes = this.registry.histogram("submissions.size");
+        this.submissionLatency = this.registry.histogram("submissions.latency");
+        this.broadcastDuration = this.registry.histogram("broadcasts.duration");
+    }
+
+    /**
+     * getRegistry
+     * Gets the registry holding every metric, so more can be added or listed.
+     * @return the metrics registry
+     */
+    public MetricsRegistry getRegistry() {
+        return this.registry;
+    }
+
+    /**
+     * register
+     * Exposes the metrics over JMX.
+     * @param port the port of the server, which tells servers in one JVM apart
+     */
+    synchronized void register(int port) {
+        try {
+            ObjectName name = new ObjectName("ics4ue:type=HostServer,port=" + port);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            this.objectName = name;
+        } catch (JMException e) {
+            System.out.println("Failed to expose host server metrics over JMX.");
+        }
+    }
+
+    /**
+     * unregister
+     * Stops exposing the metrics over JMX.
+     */
+    synchronized void unregister() {
+        if (this.objectName == null) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            server.unregisterMBean(this.objectName);
+        } catch (JMException e) {
+            System.out.println("Failed to remove host server metrics from JMX.");
+        }
+
+        this.objectName = null;
+    }
+
+    /**
+     * recordConnect
+     * Counts a client which registered.
+     */
+    void recordConnect() {
+        this.connects.mark();
+    }
+
+    /**
+     * recordDisconnect
+     * Counts a client which left its lobby for good.
+     */
+    void recordDisconnect() {
+        this.disconnects.mark();
+    }
+
+    /**
+     * recordHeartbeatFailures
+     * Counts clients which timed out or could not be sent a heartbeat.
+     * @param failures the number of clients
+     */
+    void recordHeartbeatFailures(int failures) {
+        this.heartbeatFailures.add(failures);
+    }
+
+    /**
+     * recordBytesIn
+     * Counts bytes read from clients.
+     * @param bytes the number of bytes
+     */
+    void recordBytesIn(long bytes) {
+        this.bytesIn.add(bytes);
+    }
+
+    /**
+     * recordBytesOut
+     * Counts bytes written to clients.
+     * @param bytes the number of bytes
+     */
+    void recordBytesOut(long bytes) {
+        this.bytesOut.add(bytes);
+    }
+
+    /**
+     * recordSubmission
+     * Records a submission and how long it took to store and announce.
+     * @param sourceBytes the size of the source as UTF-8
+     * @param nanos the time from receiving the submission to calling the submit listeners
+     */
+    void recordSubmission(long sourceBytes, long nanos) {
+        this.submissionSizes.record(sourceBytes);
+        this.submissionLatency.record(nanos / 1000);
+    }
+
+    /**
+     * recordSubmissionRejected
+     * Counts a submission refused for its size or the client's rate limit.
+     */
+    void recordSubmissionRejected() {
+        this.submissionRejections.increment();
+    }
+
+    /**
+     * recordBroadcast
+     * Records how long a broadcast took to reach every client.
+     * @param nanos the duration of the broadcast
+     */
+    void recordBroadcast(long nanos) {
+        this.broadcastDuration.record(nanos / 1000);
+    }
+
+    @Override
+    public long getActiveConnections() {
+        return this.activeConnections.getValue();
+    }
+
+    @Override
+    public long getConnects() {
+        return this.connects.getCount();
+    }
+
+    @Override
+    public double getConnectRate() {
+        return this.connects.getOneMinuteRate();
+    }
+
+    @Override
+    public long getDisconnects() {
+        return this.disconnects.getCount();
+    }
+
+    @Override
+    public double getDisconnectRate() {
+        return this.disconnects.getOneMinuteRate();
+    }
+
+    @Override
+    public long getHeartbeatFailures() {
+        return this.heartbeatFailures.getCount();
+    }
+
+    @Override
+    public long getBytesIn() {
+        return this.bytesIn.getCount();
+    }
+
+    @Override
+    public long getBytesOut() {
+        return this.bytesOut.getCount();
+    }
+
+    @Override
+    public long getSubmissions() {
+        return this.submissionSizes.getCount();
+    }
+
+    @Override
+    public long getSubmissionRejections() {
+        return this.submissionRejections.getCount();
+    }
+
+    @Override
+    public double getSubmissionSizeMean() {
+        return this.submissionSizes.getMean();
+    }
+
+    @Override
+    public long getSubmissionSizeMax() {
+        return this.submissionSizes.getMax();
+    }
+
+    @Override
+    public long getSubmissionBytesSaved() {
+        return this.submissionStats.getSavedBytes();
+    }
+
+    @Override
+    public double getSubmissionLatencyP50() {
+        return this.submissionLatency.getPercentile(0.50) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getSubmissionLatencyP90() {
+        return this.submissionLatency.getPercentile(0.90) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getSubmissionLatencyP99() {
+        return this.submissionLatency.getPercentile(0.99) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getSubmissionLatencyMax() {
+        return this.submissionLatency.getMax() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public long getBroadcasts() {
+        return this.broadcastDuration.getCount();
+    }
+
+    @Override
+    public double getBroadcastDurationP50() {
+        return this.broadcastDuration.getPercentile(0.50) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getBroadcastDurationP99() {
+        return this.broadcastDuration.getPercentile(0.99) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getBroadcastDurationMax() {
+        return this.broadcastDuration.getMax() / MICROS_PER_MILLI;
+    }
+
+    /**
+     * toString
+     * Summarizes the metrics.
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return String.format("%d active, %d connects (%.2f/s), %d disconnects (%.2f/s), %d heartbeat failures, "
+                        + "%d bytes in, %d bytes out, submission latency p50 %.2f ms p99 %.2f ms, "
+                        + "broadcast p50 %.2f ms p99 %.2f ms",
+                this.getActiveConnections(), this.getConnects(), this.getConnectRate(),
+                this.getDisconnects(), this.getDisconnectRate(), this.getHeartbeatFailures(),
+                this.getBytesIn(), this.getBytesOut(), this.getSubmissionLatencyP50(), this.getSubmissionLatencyP99(),
+                this.getBroadcastDurationP50(), this.getBroadcastDurationP99());
+    }
+}
@@ -0,0 +1,156 @@
+package server;
+
+/**
+ * The management interface of {@link HostServerMetrics}, shown by JMX consoles such as JConsole and VisualVM.
+ * Rates are per second over the last minute, durations are in milliseconds and sizes are in bytes.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public interface HostServerMetricsMBean {
+    /**
+     * getActiveConnections
+     * Gets the number of clients registered in every lobby.
+     * @return the active connections
+     */
+    long getActiveConnections();
+
+    /**
+     * getConnects
+     * Gets the number of clients which registered.
+     * @return the connect count
+     */
+    long getConnects();
+
+    /**
+     * getConnectRate
+     * Gets how many clients registered per second over the last minute.
+     * @return the connect rate
+     */
+    double getConnectRate();
+
+    /**
+     * getDisconnects
+     * Gets the number of clients which left their lobby for good.
+     * @return the disconnect count
+     */
+    long getDisconnects();
+
+    /**
+     * getDisconnectRate
+     * Gets how many clients left their lobby per second over the last minute.
+     * @return the disconnect rate
+     */
+    double getDisconnectRate();
+
+    /**
+     * getHeartbeatFailures
+     * Gets the number of clients which timed out or could not be sent a heartbeat.
+     * @return the heartbeat failure count
+     */
+    long getHeartbeatFailures();
+
+    /**
+     * getBytesIn
+     * Gets the number of bytes read from clients.
+     * @return the bytes read
+     */
+    long getBytesIn();
+
+    /**
+     * getBytesOut
+     * Gets the number of bytes written to clients.
+     * @return the bytes written
+     */
+    long getBytesOut();
+
+    /**
+     * getSubmissions
+     * Gets the number of submissions received.
+     * @return the submission count
+     */
+    long getSubmissions();
+
+    /**
+     * getSubmissionRejections
+     * Gets the number of submissions refused for their size or the client's rate limit.
+     * @return the rejection count
+     */
+    long getSubmissionRejections();
+
+    /**
+     * getSubmissionSizeMean
+     * Gets the average size of a submitted source.
+     * @return the mean submission size
+     */
+    double getSubmissionSizeMean();
+
+    /**
+     * getSubmissionSizeMax
+     * Gets the size of the largest submitted source.
+     * @return the largest submission size
+     */
+    long getSubmissionSizeMax();
+
+    /**
+     * getSubmissionBytesSaved
+     * Gets how many bytes compressed and patch submissions kept off the wire.
+     * @return the saved bytes
+     */
+    long getSubmissionBytesSaved();
+
+    /**
+     * getSubmissionLatencyP50
+     * Gets the median time from receiving a submission to calling the submit listeners.
+     * @return the latency
+     */
+    double getSubmissionLatencyP50();
+
+    /**
+     * getSubmissionLatencyP90
+     * Gets the 90th percentile time from receiving a submission to calling the submit listeners.
+     * @return the latency
+     */
+    double getSubmissionLatencyP90();
+
+    /**
+     * getSubmissionLatencyP99
+     * Gets the 99th percentile time from receiving a submission to calling the submit listeners.
+     * @return the latency
+     */
+    double getSubmissionLatencyP99();
+
+    /**
+     * getSubmissionLatencyMax
+     * Gets the longest time from receiving a submission to calling the submit listeners.
+     * @return the latency
+     */
+    double getSubmissionLatencyMax();
+
+    /**
+     * getBroadcasts
+     * Gets the number of broadcasts sent.
+     * @return the broadcast count
+     */
+    long getBroadcasts();
+
+    /**
+     * getBroadcastDurationP50
+     * Gets the median time a broadcast took to reach every client.
+     * @return the duration
+     */
+    double getBroadcastDurationP50();
+
+    /**
+     * getBroadcastDurationP99
+     * Gets the 99th percentile time a broadcast took to reach every client.
+     * @return the duration
+     */
+    double getBroadcastDurationP99();
+
+    /**
+     * getBroadcastDurationMax
+     * Gets the longest time a broadcast took to reach every client.
+     * @return the duration
+     */
+    double getBroadcastDurationMax();
+}
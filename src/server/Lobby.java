@@ -0,0 +1,302 @@
+package server;
+
+import client.ClientConnection;
+import function.Procedure;
+import game.GameState;
+import protocol.Frame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named group of clients within a {@link HostServer} which plays a single game.
+ * Every lobby has its own state, names, submissions and listeners,
+ * while the listening socket, heartbeats and I/O threads are shared by the whole server.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Lobby {
+    /** The name of the lobby joined by clients which do not ask for one */
+    public static final String DEFAULT_NAME = "default";
+
+    private final HostServer server;
+    private final String name;
+
+    /** Functions to call when a client joins */
+    private final List<Procedure> onConnectSubscribers;
+
+    /** Functions to call when a client leaves */
+    private final List<Procedure> onDisconnectSubscribers;
+
+    /** Functions to call when a client submits their code */
+    private final List<Procedure> onSubmissionSubscribers;
+
+    private final Set<ClientConnection> connections;
+    private final Set<String> nameSet;
+
+    /** Clients watching the game, and those of them still waiting for a keyframe */
+    private final Set<ClientConnection> spectators;
+    private final Set<ClientConnection> newSpectators;
+
+    /** The last game state sent to spectators, which the next delta is made against */
+    private GameState streamedState;
+
+    private volatile ServerState state;
+
+    /**
+     * Constructs a {@link Lobby} which accepts players.
+     * @param server the server the lobby belongs to
+     * @param name the name of the lobby
+     */
+    Lobby(HostServer server, String name) {
+        this.server = server;
+        this.name = name;
+
+        this.onConnectSubscribers = new ArrayList<>();
+        this.onDisconnectSubscribers = new ArrayList<>();
+        this.onSubmissionSubscribers = new ArrayList<>();
+
+        this.connections = ConcurrentHashMap.newKeySet();
+        this.nameSet = ConcurrentHashMap.newKeySet();
+        this.spectators = ConcurrentHashMap.newKeySet();
+        this.newSpectators = ConcurrentHashMap.newKeySet();
+
+        this.state = ServerState.ACCEPTING;
+    }
+
+    /**
+     * getName
+     * Gets the name clients use to join the lobby.
+     * @return the lobby name
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * onConnect
+     * Adds a listener function to call when a client joins the lobby.
+     * @param subscriber the callback function
+     */
+    public void onConnect(Procedure subscriber) {
+        this.onConnectSubscribers.add(subscriber);
+    }
+
+    /**
+     * onDisconnect
+     * Adds a listener function to call when a client leaves the lobby.
+     * @param subscriber the callback function
+     */
+    public void onDisconnect(Procedure subscriber) {
+        this.onDisconnectSubscribers.add(subscriber);
+    }
+
+    /**
+     * onSubmit
+     * Adds a listener function to call when a client in the lobby submits code
+     * @param subscriber the callback function
+     */
+    public void onSubmit(Procedure subscriber) {
+        this.onSubmissionSubscribers.add(subscriber);
+    }
+
+    /**
+     * getNumConnections
+     * Gets the number of clients in the lobby.
+     * @return the number of connections
+     */
+    public int getNumConnections() {
+        return this.connections.size();
+    }
+
+    /**
+     * getConnections
+     * Gets the clients in the lobby.
+     * @return the connection pool of the lobby
+     */
+    public Set<ClientConnection> getConnections() {
+        return this.connections;
+    }
+
+    /**
+     * setState
+     * Changes the lobby state.
+     * Clients are sent the {@link ServerCode#NEXT_SCREEN} message as soon as submissions open.
+     * @param state the new lobby state
+     */
+    public void setState(ServerState state) {
+        this.state = state;
+        this.server.stateChanged(this);
+    }
+
+    /**
+     * restoreState
+     * Sets the lobby state recorded before the host restarted, without messaging clients.
+     * @param state the restored lobby state
+     */
+    void restoreState(ServerState state) {
+        this.state = state;
+    }
+
+    /**
+     * getState
+     * Gets the current lobby state.
+     * @return the lobby state
+     */
+    public ServerState getState() {
+        return this.state;
+    }
+
+    /**
+     * broadcast
+     * Attempts to broadcast a {@link ServerCode} to every client in the lobby.
+     * @param code the code to broadcast
+     * @return a future which completes with the delivery status of every client
+     * @see HostServer#broadcast(ServerCode)
+     */
+    public CompletableFuture<Map<ClientConnection, DeliveryStatus>> broadcast(ServerCode code) {
+        return this.server.broadcast(this.connections, code);
+    }
+
+    /**
+     * getNumSpectators
+     * Gets the number of clients watching the lobby's game.
+     * @return the number of spectators
+     */
+    public int getNumSpectators() {
+        return this.spectators.size();
+    }
+
+    /**
+     * stream
+     * Sends the state of the lobby's game to its spectators after an update cycle.
+     * New spectators get the whole state as a {@link ServerCode#GAME_STATE} keyframe,
+     * while the others get a {@link ServerCode#GAME_DELTA} holding what changed since the previous call.
+     * Each frame is encoded once however many spectators receive it.
+     * @param state the game state after the latest update cycle
+     */
+    public synchronized void stream(GameState state) {
+        GameState previous = this.streamedState;
+        this.streamedState = state;
+
+        if (this.spectators.isEmpty()) {
+            return;
+        }
+
+        List<ClientConnection> joined = new ArrayList<>();
+
+        for (ClientConnection client : this.newSpectators) {
+            if (this.newSpectators.remove(client)) {
+                joined.add(client);
+            }
+        }
+
+        if (!joined.isEmpty()) {
+            this.server.stream(joined, new Frame(ServerCode.GAME_STATE, state.encodeKeyframe()));
+        }
+
+        if ((previous == null) || (joined.size() == this.spectators.size())) {
+            return;
+        }
+
+        List<ClientConnection> watching = new ArrayList<>(this.spectators);
+        watching.removeAll(joined);
+
+        this.server.stream(watching, new Frame(ServerCode.GAME_DELTA, state.encodeDelta(previous)));
+    }
+
+    /**
+     * close
+     * Closes the lobby and disconnects its clients.
+     * The default lobby stays joinable by name but no longer accepts players.
+     */
+    public void close() {
+        this.setState(ServerState.CLOSED);
+        this.server.removeLobby(this);
+    }
+
+    /**
+     * add
+     * Adds a client to the lobby under a name.
+     * @param client the client connection
+     * @param name the requested name
+     * @return if the name was free and the client was added
+     */
+    boolean add(ClientConnection client, String name) {
+        if ((name == null) || !this.nameSet.add(name)) {
+            return false;
+        }
+
+        client.setName(name);
+        this.connections.add(client);
+        this.server.getMetrics().recordConnect();
+
+        // Call connect listeners
+        notifySubscribers(this.onConnectSubscribers);
+
+        return true;
+    }
+
+    /**
+     * spectate
+     * Adds a client to the lobby's spectators, who gets a keyframe after the next update cycle.
+     * @param client the client connection
+     */
+    void spectate(ClientConnection client) {
+        // Waiting for a keyframe first, so it never gets a delta it cannot apply
+        this.newSpectators.add(client);
+        this.spectators.add(client);
+    }
+
+    /**
+     * submit
+     * Calls the submit listeners once a client in the lobby has submitted.
+     */
+    void submit() {
+        // Call submit listeners
+        notifySubscribers(this.onSubmissionSubscribers);
+    }
+
+    /**
+     * remove
+     * Removes a client from the lobby and calls the disconnect listeners.
+     * @param client the client connection
+     */
+    void remove(ClientConnection client) {
+        if (!this.connections.remove(client)) {
+            return;
+        }
+
+        this.spectators.remove(client);
+        this.newSpectators.remove(client);
+
+        // Remove name from name set
+        String clientName = client.getName();
+
+        if (clientName != null) {
+            this.nameSet.remove(clientName);
+        }
+
+        this.server.getMetrics().recordDisconnect();
+
+        // Call disconnect listeners
+        notifySubscribers(this.onDisconnectSubscribers);
+    }
+
+    /**
+     * notifySubscribers
+     * Calls every listener function in a subscriber list.
+     * @param subscribers the listener functions to call
+     */
+    private static void notifySubscribers(List<Procedure> subscribers) {
+        synchronized (subscribers) {
+            for (Procedure subscriber : subscribers) {
+                subscriber.execute();
+            }
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A write-ahead log of the registrations, accepted submissions and lobby states of a {@link HostServer},
+ * from which the sessions of open lobbies are restored after the host restarts.
+ * Every change is appended as a record holding its length and CRC-32, so a record torn by the host dying
+ * is detected and cut off when the journal is replayed.
+ * Records reach the operating system as soon as they are appended, which keeps them if the host process dies,
+ * and are only forced to the disk when the journal is compacted or closed.
+ * Submissions are recorded as the hash of their source in the {@link SubmissionArchive}.
+ * Once enough records describe sessions which no longer exist, the journal is rewritten with one record per live fact.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class LobbyJournal implements AutoCloseable {
+    /** The name of the journal file in the storage directory */
+    static final String JOURNAL_FILE = "lobbies.journal";
+
+    /** Compaction runs once the journal holds this many records and more than half of them are stale */
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    /** Record types */
+    private static final byte REGISTERED = 1;
+    private static final byte SUBMITTED = 2;
+    private static final byte LEFT = 3;
+    private static final byte STATE_CHANGED = 4;
+
+    private final Path file;
+    private FileChannel channel;
+
+    /** The state of every open lobby by name */
+    private final Map<String, ServerState> lobbyStates;
+
+    /** Every live session in registration order, by lobby and name */
+    private final Map<String, Session> sessions;
+
+    /** The number of records in the journal file */
+    private int numRecords;
+    private boolean closed;
+
+    /**
+     * Constructs an empty {@link LobbyJournal}.
+     * @param file the journal file
+     */
+    private LobbyJournal(Path file) {
+        this.file = file;
+        this.lobbyStates = new LinkedHashMap<>();
+        this.sessions = new LinkedHashMap<>();
+    }
+
+    /**
+     * open
+     * Opens the journal in a directory, replays it and compacts it.
+     * @param directory the storage directory
+     * @return the journal
+     * @throws IOException if an I/O error occurs while reading or rewriting the journal
+     */
+    static LobbyJournal open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        LobbyJournal journal = new LobbyJournal(directory.resolve(JOURNAL_FILE));
+
+        if (Files.exists(journal.file)) {
+            journal.replay(Files.readAllBytes(journal.file));
+        }
+
+        // Starts every run with a journal of only live records
+        journal.compact();
+
+        return journal;
+    }
+
+    /**
+     * getLobbyStates
+     * Gets the state of every lobby which was open when the journal was last written.
+     * @return the lobby states by lobby name
+     */
+    synchronized Map<String, ServerState> getLobbyStates() {
+        return new LinkedHashMap<>(this.lobbyStates);
+    }
+
+    /**
+     * getSessions
+     * Gets every session which was live in an open lobby when the journal was last written.
+     * @return the sessions in registration order
+     */
+    synchronized List<Session> getSessions() {
+        return new ArrayList<>(this.sessions.values());
+    }
+
+    /**
+     * registered
+     * Records a client registering in a lobby.
+     * @param lobby the name of the lobby
+     * @param name the name of the client
+     * @param token the resume token of the client
+     */
+    synchronized void registered(String lobby, String name, String token) {
+        this.sessions.put(key(lobby, name), new Session(lobby, name, token));
+        this.lobbyStates.putIfAbsent(lobby, ServerState.ACCEPTING);
+        this.append(REGISTERED, lobby, name, token);
+    }
+
+    /**
+     * submitted
+     * Records a client's accepted submission.
+     * @param lobby the name of the lobby
+     * @param name the name of the client
+     * @param codeHash the SHA-256 hash of the source
+     * @param submissionTime when the source was submitted
+     */
+    synchronized void submitted(String lobby, String name, byte[] codeHash, LocalTime submissionTime) {
+        Session session = this.sessions.get(key(lobby, name));
+
+        if (session == null) {
+            return;
+        }
+
+        session.codeHash = codeHash;
+        session.submissionTime = submissionTime;
+        this.append(SUBMITTED, lobby, name, codeHash, submissionTime.toNanoOfDay());
+    }
+
+    /**
+     * left
+     * Records a client leaving its lobby for good.
+     * @param lobby the name of the lobby
+     * @param name the name of the client
+     */
+    synchronized void left(String lobby, String name) {
+        if (this.sessions.remove(key(lobby, name)) != null) {
+            this.append(LEFT, lobby, name);
+        }
+    }
+
+    /**
+     * stateChanged
+     * Records the state of a lobby changing.
+     * A lobby which closes is forgotten along with its sessions, as its game has started.
+     * @param lobby the name of the lobby
+     * @param state the new state
+     */
+    synchronized void stateChanged(String lobby, ServerState state) {
+        this.applyState(lobby, state);
+        this.append(STATE_CHANGED, lobby, state.name());
+    }
+
+    /**
+     * close
+     * Forces the journal to the disk and closes it. Later changes are not recorded.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+
+        try {
+            this.channel.force(true);
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * append
+     * Appends a record, compacting the journal if enough of it is stale.
+     * Errors are reported rather than thrown, as the host keeps running without its journal.
+     * @param type the record type
+     * @param fields the strings, byte arrays and longs the record holds
+     */
+    private void append(byte type, Object... fields) {
+        if (this.closed) {
+            return;
+        }
+
+        try {
+            write(this.channel, encode(type, fields));
+            this.numRecords++;
+
+            if ((this.numRecords >= COMPACTION_THRESHOLD) && (this.numRecords > 2 * this.countLiveRecords())) {
+                this.compact();
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to write to the lobby journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * compact
+     * Rewrites the journal with one record for every open lobby and live session,
+     * replacing the old journal in one step.
+     * @throws IOException if an I/O error occurs
+     */
+    private void compact() throws IOException {
+        Path compacted = this.file.resolveSibling(JOURNAL_FILE + ".tmp");
+        int records = 0;
+
+        try (FileChannel output = FileChannel.open(
+                compacted,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            for (Map.Entry<String, ServerState> entry : this.lobbyStates.entrySet()) {
+                write(output, encode(STATE_CHANGED, entry.getKey(), entry.getValue().name()));
+                records++;
+            }
+
+            for (Session session : this.sessions.values()) {
+                write(output, encode(REGISTERED, session.lobby, session.name, session.token));
+                records++;
+
+                if (session.codeHash != null) {
+                    write(output, encode(
+                            SUBMITTED, session.lobby, session.name, session.codeHash, session.submissionTime.toNanoOfDay()
+                    ));
+                    records++;
+                }
+            }
+
+            output.force(true);
+        }
+
+        if (this.channel != null) {
+            this.channel.close();
+        }
+
+        Files.move(compacted, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        this.channel = FileChannel.open(this.file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.numRecords = records;
+    }
+
+    /**
+     * countLiveRecords
+     * Counts the records a compacted journal would hold.
+     * @return the number of live records
+     */
+    private int countLiveRecords() {
+        int records = this.lobbyStates.size();
+
+        for (Session session : this.sessions.values()) {
+            records += (session.codeHash != null) ? 2 : 1;
+        }
+
+        return records;
+    }
+
+    /**
+     * replay
+     * Applies every whole record of a journal, stopping at the first torn or corrupt record.
+     * @param journal the bytes of the journal file
+     */
+    private void replay(byte[] journal) {
+        ByteBuffer buffer = ByteBuffer.wrap(journal);
+
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+
+            if ((length <= 0) || (length > buffer.remaining())) {
+                return;
+            }
+
+            byte[] body = new byte[length];
+            buffer.get(body);
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+
+            // A record which passed its checksum but cannot be read was written by a different build
+            try {
+                this.apply(new DataInputStream(new ByteArrayInputStream(body)));
+            } catch (IOException | IllegalArgumentException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * apply
+     * Applies one record to the live sessions and lobby states.
+     * @param record the body of the record
+     * @throws IOException if the record is malformed
+     */
+    private void apply(DataInputStream record) throws IOException {
+        byte type = record.readByte();
+        String lobby = record.readUTF();
+
+        if (type == STATE_CHANGED) {
+            this.applyState(lobby, ServerState.valueOf(record.readUTF()));
+            return;
+        }
+
+        String name = record.readUTF();
+
+        if (type == REGISTERED) {
+            this.sessions.put(key(lobby, name), new Session(lobby, name, record.readUTF()));
+            this.lobbyStates.putIfAbsent(lobby, ServerState.ACCEPTING);
+        } else if (type == SUBMITTED) {
+            Session session = this.sessions.get(key(lobby, name));
+            byte[] codeHash = new byte[record.readInt()];
+            record.readFully(codeHash);
+            long submissionTime = record.readLong();
+
+            if (session != null) {
+                session.codeHash = codeHash;
+                session.submissionTime = LocalTime.ofNanoOfDay(submissionTime);
+            }
+        } else if (type == LEFT) {
+            this.sessions.remove(key(lobby, name));
+        }
+    }
+
+    /**
+     * applyState
+     * Sets the state of a lobby, forgetting it and its sessions once it closes.
+     * @param lobby the name of the lobby
+     * @param state the new state
+     */
+    private void applyState(String lobby, ServerState state) {
+        if (state != ServerState.CLOSED) {
+            this.lobbyStates.put(lobby, state);
+            return;
+        }
+
+        this.lobbyStates.remove(lobby);
+        this.sessions.values().removeIf((session) -> session.lobby.equals(lobby));
+    }
+
+    /**
+     * encode
+     * Encodes a record as its length, its CRC-32 and its body.
+     * @param type the record type
+     * @param fields the strings, byte arrays and longs the record holds
+     * @return the encoded record
+     * @throws IOException if a string is too long to encode
+     */
+    private static ByteBuffer encode(byte type, Object... fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+
+        body.writeByte(type);
+
+        for (Object field : fields) {
+            if (field instanceof String) {
+                body.writeUTF((String) field);
+            } else if (field instanceof byte[]) {
+                body.writeInt(((byte[]) field).length);
+                body.write((byte[]) field);
+            } else {
+                body.writeLong((Long) field);
+            }
+        }
+
+        byte[] encoded = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(encoded);
+
+        ByteBuffer record = ByteBuffer.allocate(8 + encoded.length);
+        record.putInt(encoded.length).putInt((int) crc.getValue()).put(encoded).flip();
+
+        return record;
+    }
+
+    /**
+     * write
+     * Writes a whole buffer to a file.
+     * @param channel the file
+     * @param buffer the buffer to write
+     * @throws IOException if an I/O error occurs
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * key
+     * Creates the key of a session, as names are only unique within a lobby.
+     * @param lobby the name of the lobby
+     * @param name the name of the client
+     * @return the session key
+     */
+    private static String key(String lobby, String name) {
+        return lobby + '\0' + name;
+    }
+
+    /**
+     * A client's session as recorded in the journal.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    static class Session {
+        private final String lobby;
+        private final String name;
+        private final String token;
+        private byte[] codeHash;
+        private LocalTime submissionTime;
+
+        /**
+         * Constructs a {@link Session} without a submission.
+         * @param lobby the name of the lobby
+         * @param name the name of the client
+         * @param token the resume token of the client
+         */
+        Session(String lobby, String name, String token) {
+            this.lobby = lobby;
+            this.name = name;
+            this.token = token;
+        }
+
+        /**
+         * getLobby
+         * Gets the name of the lobby the client registered in.
+         * @return the lobby name
+         */
+        String getLobby() {
+            return this.lobby;
+        }
+
+        /**
+         * getName
+         * Gets the name of the client.
+         * @return the client name
+         */
+        String getName() {
+            return this.name;
+        }
+
+        /**
+         * getToken
+         * Gets the token the client resumes its session with.
+         * @return the resume token
+         */
+        String getToken() {
+            return this.token;
+        }
+
+        /**
+         * getCodeHash
+         * Gets the hash of the client's submitted source.
+         * @return the SHA-256 hash, or null if the client has not submitted
+         */
+        byte[] getCodeHash() {
+            return this.codeHash;
+        }
+
+        /**
+         * getSubmissionTime
+         * Gets when the client submitted its source.
+         * @return the submission time, or null if the client has not submitted
+         */
+        LocalTime getSubmissionTime() {
+            return this.submissionTime;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package server;
+
+import protocol.Frame;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An encoded frame waiting in an {@link OutboundQueue} to be written to a client.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class OutboundMessage {
+    private final ServerCode type;
+    private final ByteBuffer buffer;
+    private final CompletableFuture<Void> written;
+
+    /**
+     * Constructs an {@link OutboundMessage}.
+     * @param frame the frame to write
+     */
+    OutboundMessage(Frame frame) {
+        this.type = frame.getType();
+        this.buffer = frame.encode();
+        this.written = new CompletableFuture<>();
+    }
+
+    /**
+     * getType
+     * Gets the type of the frame.
+     * @return the frame type
+     */
+    ServerCode getType() {
+        return this.type;
+    }
+
+    /**
+     * getBuffer
+     * Gets the encoded frame, whose position tracks how much has been written.
+     * @return the encoded frame
+     */
+    ByteBuffer getBuffer() {
+        return this.buffer;
+    }
+
+    /**
+     * getWritten
+     * Gets the future which completes once the whole frame has been written.
+     * @return the write future
+     */
+    CompletableFuture<Void> getWritten() {
+        return this.written;
+    }
+}
@@ -0,0 +1,171 @@
+package server;
+
+import protocol.Frame;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of messages waiting to be written to a single client.
+ * Heartbeats are coalesced so at most one is ever waiting, and an
+ * {@link OverflowPolicy} decides what happens when a client falls behind.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class OutboundQueue {
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final Deque<OutboundMessage> messages;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+
+    /** The heartbeat waiting in the queue, if any */
+    private OutboundMessage queuedHeartbeat;
+    private boolean closed;
+
+    /**
+     * Constructs an {@link OutboundQueue}.
+     * @param capacity the maximum number of waiting messages
+     * @param policy what to do when the queue is full
+     */
+    OutboundQueue(int capacity, OverflowPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.messages = new ArrayDeque<>();
+        this.lock = new ReentrantLock();
+        this.notFull = this.lock.newCondition();
+    }
+
+    /**
+     * getPolicy
+     * Gets what happens when the queue is full.
+     * @return the overflow policy
+     */
+    OverflowPolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * offer
+     * Adds a frame to the queue.
+     * A heartbeat is merged into one which is already waiting.
+     * With the {@link OverflowPolicy#BLOCK} policy the calling thread waits for space if it may block.
+     * @param frame the frame to write
+     * @param mayBlock if the calling thread may wait for space
+     * @return the message which will carry the frame, or null if the queue was full or closed
+     */
+    OutboundMessage offer(Frame frame, boolean mayBlock) {
+        this.lock.lock();
+
+        try {
+            boolean heartbeat = frame.getType() == ServerCode.HEARTBEAT;
+
+            if (heartbeat && (this.queuedHeartbeat != null)) {
+                return this.queuedHeartbeat;
+            }
+
+            // Heartbeats never wait, a missed one is caught up by the next
+            boolean block = mayBlock && !heartbeat && (this.policy == OverflowPolicy.BLOCK);
+
+            while (block && !this.closed && (this.messages.size() >= this.capacity)) {
+                this.notFull.await();
+            }
+
+            if (this.closed || (this.messages.size() >= this.capacity)) {
+                return null;
+            }
+
+            OutboundMessage message = new OutboundMessage(frame);
+            this.messages.add(message);
+
+            if (heartbeat) {
+                this.queuedHeartbeat = message;
+            }
+
+            return message;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * peek
+     * Gets the next message to write without removing it.
+     * @return the next message, or null if the queue is empty
+     */
+    OutboundMessage peek() {
+        this.lock.lock();
+
+        try {
+            return this.messages.peek();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * poll
+     * Removes the next message once it has been written.
+     * @return the removed message, or null if the queue is empty
+     */
+    OutboundMessage poll() {
+        this.lock.lock();
+
+        try {
+            OutboundMessage message = this.messages.poll();
+
+            if (message == this.queuedHeartbeat) {
+                this.queuedHeartbeat = null;
+            }
+
+            this.notFull.signal();
+
+            return message;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * isEmpty
+     * Checks if no messages are waiting.
+     * @return if the queue is empty
+     */
+    boolean isEmpty() {
+        this.lock.lock();
+
+        try {
+            return this.messages.isEmpty();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * close
+     * Rejects all future messages and fails every waiting one.
+     * @param cause the reason the waiting messages were not written
+     */
+    void close(Throwable cause) {
+        this.lock.lock();
+
+        try {
+            this.closed = true;
+
+            for (OutboundMessage message : this.messages) {
+                message.getWritten().completeExceptionally(cause);
+            }
+
+            this.messages.clear();
+            this.queuedHeartbeat = null;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
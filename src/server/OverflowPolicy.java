@@ -0,0 +1,15 @@
+package server;
+
+/**
+ * Constants for specifying what happens when a client's outbound queue is full.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum OverflowPolicy {
+    /** The new message is discarded */
+    DROP,
+    /** The sending thread waits until the queue has space */
+    BLOCK,
+    /** The client is disconnected */
+    DISCONNECT,
+}
@@ -0,0 +1,65 @@
+package server;
+
+import client.ClientConnection;
+
+/**
+ * A client whose connection dropped, kept in its lobby while it may still resume.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class ParkedClient {
+    private final ClientConnection client;
+    private final Lobby lobby;
+    private final boolean nextScreenSent;
+    private final long deadline;
+
+    /**
+     * Constructs a {@link ParkedClient}.
+     * @param client the dropped client
+     * @param lobby the lobby the client belongs to
+     * @param nextScreenSent if the client was already sent {@link ServerCode#NEXT_SCREEN}
+     * @param deadline the {@link System#nanoTime()} after which the client is removed
+     */
+    ParkedClient(ClientConnection client, Lobby lobby, boolean nextScreenSent, long deadline) {
+        this.client = client;
+        this.lobby = lobby;
+        this.nextScreenSent = nextScreenSent;
+        this.deadline = deadline;
+    }
+
+    /**
+     * getClient
+     * Gets the dropped client.
+     * @return the client connection
+     */
+    ClientConnection getClient() {
+        return this.client;
+    }
+
+    /**
+     * getLobby
+     * Gets the lobby the client belongs to.
+     * @return the lobby
+     */
+    Lobby getLobby() {
+        return this.lobby;
+    }
+
+    /**
+     * isNextScreenSent
+     * Checks if the client was already sent {@link ServerCode#NEXT_SCREEN} before it dropped.
+     * @return if the next screen was sent
+     */
+    boolean isNextScreenSent() {
+        return this.nextScreenSent;
+    }
+
+    /**
+     * getDeadline
+     * Gets when the client stops being resumable.
+     * @return the {@link System#nanoTime()} after which the client is removed
+     */
+    long getDeadline() {
+        return this.deadline;
+    }
+}
@@ -0,0 +1,682 @@
+package server;
+
+import client.ClientConnection;
+import loader.ObjectLoader;
+import protocol.Frame;
+import protocol.FrameDecoder;
+import protocol.Protocol;
+import protocol.FrameTooLargeException;
+import protocol.ProtocolException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Event loop which handles every client connection of a {@link HostServer}
+ * on a single thread using a non-blocking {@link Selector}.
+ * Name registration, {@link ServerCode#NEXT_SCREEN} messages and code submissions
+ * are all processed without blocking on any one client.
+ * Heartbeats are queued by the {@link HeartbeatWheel} and written by this thread.
+ * Output waits in a bounded {@link OutboundQueue} per client, so a slow client cannot grow memory without limit.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class SelectorThread extends Thread {
+    private static final int BUFFER_SIZE = 8192;
+    private static final long CLOSE_LINGER = 1000;
+
+    private final HostServer server;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final int outboundCapacity;
+    private final OverflowPolicy overflowPolicy;
+
+    /** Every open client session */
+    private final Map<ClientConnection, Session> sessions;
+
+    /** Sessions with output queued by other threads */
+    private final Queue<Session> pendingWrites;
+
+    /** Sessions closed by other threads */
+    private final Queue<Session> pendingDrops;
+
+    /** Lobbies whose state was changed by other threads */
+    private final Queue<Lobby> pendingStates;
+
+    /**
+     * Constructs a {@link SelectorThread}.
+     * @param server the server whose clients are handled
+     * @param serverChannel the listening socket channel
+     * @param config the server settings
+     * @throws IOException if an I/O error occurs when opening the selector
+     */
+    SelectorThread(HostServer server, ServerSocketChannel serverChannel, ServerConfig config) throws IOException {
+        super("HostServer-Selector");
+
+        this.server = server;
+        this.serverChannel = serverChannel;
+        this.selector = Selector.open();
+        this.outboundCapacity = config.getOutboundCapacity();
+        this.overflowPolicy = config.getOverflowPolicy();
+        this.sessions = new ConcurrentHashMap<>();
+        this.pendingWrites = new ConcurrentLinkedQueue<>();
+        this.pendingDrops = new ConcurrentLinkedQueue<>();
+        this.pendingStates = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * wakeup
+     * Wakes up the event loop so it can react to the server closing.
+     */
+    void wakeup() {
+        this.selector.wakeup();
+    }
+
+    /**
+     * stateChanged
+     * Lets the event loop react to a change in a lobby's state.
+     * @param lobby the lobby whose state changed
+     */
+    void stateChanged(Lobby lobby) {
+        this.pendingStates.add(lobby);
+        this.selector.wakeup();
+    }
+
+    /**
+     * send
+     * Queues a {@link Frame} to be written to a client without ever waiting for space.
+     * @param client the client connection
+     * @param frame the frame to send
+     * @return false if the client no longer has an open session or must be disconnected
+     */
+    boolean send(ClientConnection client, Frame frame) {
+        Session session = this.sessions.get(client);
+
+        if (session == null) {
+            return false;
+        }
+
+        // A frame which does not fit is skipped unless full queues disconnect clients
+        return (this.send(session, frame, false) != null) || (this.overflowPolicy != OverflowPolicy.DISCONNECT);
+    }
+
+    /**
+     * sendAsync
+     * Queues a {@link Frame} to be written to a client and tracks its delivery.
+     * @param client the client connection
+     * @param frame the frame to send
+     * @return a future which completes once the whole frame has been written to the socket
+     */
+    CompletableFuture<Void> sendAsync(ClientConnection client, Frame frame) {
+        Session session = this.sessions.get(client);
+
+        if (session == null) {
+            return CompletableFuture.failedFuture(new ClosedChannelException());
+        }
+
+        OutboundMessage message = this.send(session, frame, true);
+
+        if (message == null) {
+            if (this.overflowPolicy != OverflowPolicy.DROP) {
+                this.drop(client);
+            }
+
+            return CompletableFuture.failedFuture(new IOException("Outbound queue of client " + client.getName() + " is full"));
+        }
+
+        // Copied so callers cannot complete a message shared by coalesced heartbeats
+        return message.getWritten().copy();
+    }
+
+    /**
+     * drop
+     * Closes a client's session from any thread.
+     * The session is closed immediately on the event loop, and by the next loop iteration otherwise.
+     * @param client the client connection
+     */
+    void drop(ClientConnection client) {
+        Session session = this.sessions.get(client);
+
+        if (session == null) {
+            return;
+        }
+
+        if (Thread.currentThread() == this) {
+            this.drop(session);
+            return;
+        }
+
+        this.pendingDrops.add(session);
+        this.selector.wakeup();
+    }
+
+    /**
+     * run
+     * Runs the event loop until the server is closed.
+     */
+    @Override
+    public void run() {
+        try {
+            this.serverChannel.configureBlocking(false);
+            // Lobbies which are not accepting players reject clients during registration
+            this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+
+            long closeDeadline = -1;
+
+            while (true) {
+                long now = System.currentTimeMillis();
+
+                this.flushPending();
+
+                // Once the server is closed, give queued messages time to be delivered
+                if (!this.serverChannel.isOpen()) {
+                    if (closeDeadline < 0) {
+                        closeDeadline = now + CLOSE_LINGER;
+                    }
+
+                    if ((now >= closeDeadline) || this.isFlushed()) {
+                        break;
+                    }
+                }
+
+                // Sleep until I/O is ready, or until the close deadline
+                long timeout = 0;
+
+                if (closeDeadline >= 0) {
+                    timeout = Math.max(1, closeDeadline - now);
+                }
+
+                this.selector.select(timeout);
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    if (!key.isValid()) {
+                        continue;
+                    }
+
+                    if (key.isAcceptable()) {
+                        this.accept();
+                        continue;
+                    }
+
+                    Session session = (Session) key.attachment();
+
+                    if (key.isReadable()) {
+                        this.read(session);
+                    }
+
+                    if (key.isValid() && key.isWritable()) {
+                        this.flush(session);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.out.println("An error occurred in the host server event loop.");
+        } finally {
+            for (Session session : this.sessions.values()) {
+                this.drop(session);
+            }
+
+            try {
+                this.selector.close();
+            } catch (IOException e) {
+                System.out.println("Error occurred while attempting to close the selector.");
+            }
+        }
+    }
+
+    /**
+     * accept
+     * Accepts every pending client connection.
+     */
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+
+            try {
+                channel = this.serverChannel.accept();
+            } catch (IOException e) {
+                return;
+            }
+
+            if (channel == null) {
+                return;
+            }
+
+            try {
+                channel.configureBlocking(false);
+                Session session = new Session(new ClientConnection(channel), this.outboundCapacity, this.overflowPolicy);
+
+                // Oversized frames are refused from their header
+                this.server.limitFrames(session.decoder);
+
+                session.key = channel.register(this.selector, SelectionKey.OP_READ, session);
+                this.sessions.put(session.client, session);
+            } catch (IOException e) {
+                System.out.println("An error occured while attempting to connection to the client");
+
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    System.out.println("Error occurred while attempting to close client socket");
+                }
+            }
+        }
+    }
+
+    /**
+     * read
+     * Reads and processes all available input from a client.
+     * @param session the client session
+     */
+    private void read(Session session) {
+        int bytesRead;
+
+        try {
+            bytesRead = session.client.getChannel().read(session.input);
+        } catch (IOException e) {
+            bytesRead = -1;
+        }
+
+        if (bytesRead < 0) {
+            this.drop(session);
+            return;
+        }
+
+        this.server.getMetrics().recordBytesIn(bytesRead);
+        session.client.markSeen();
+        session.input.flip();
+
+        // Handle every complete frame, keeping partial ones for the next read
+        try {
+            Frame frame;
+
+            while (!session.closing && ((frame = this.decode(session)) != null)) {
+                this.handle(session, frame);
+            }
+        } catch (ProtocolException e) {
+            this.drop(session);
+            return;
+        }
+
+        session.input.clear();
+    }
+
+    /**
+     * decode
+     * Decodes the next complete frame of a client, refusing submissions over the size limit
+     * as soon as their header arrives and skipping their payload.
+     * @param session the client session
+     * @return the frame, or null if more bytes are needed
+     * @throws ProtocolException if the client sent an invalid frame
+     */
+    private Frame decode(Session session) throws ProtocolException {
+        while (true) {
+            try {
+                return session.decoder.decode(session.input);
+            } catch (FrameTooLargeException e) {
+                Frame rejection = this.server.rejectOversized(e);
+
+                if ((rejection == null) || !session.registered) {
+                    throw e;
+                }
+
+                this.sendOrDrop(session, rejection);
+            }
+        }
+    }
+
+    /**
+     * handle
+     * Processes a single frame sent by a client.
+     * @param session the client session
+     * @param frame the frame
+     * @throws ProtocolException if the frame's payload is malformed
+     */
+    private void handle(Session session, Frame frame) throws ProtocolException {
+        // Protocol version
+        if (!session.greeted) {
+            if (Protocol.getVersion(frame) != Protocol.VERSION) {
+                this.reject(session, "Unsupported protocol version");
+                return;
+            }
+
+            session.greeted = true;
+
+            // Agree on optional features with clients which offer any
+            Frame answer = this.server.answer(frame);
+
+            if (answer != null) {
+                this.sendOrDrop(session, answer);
+            }
+
+            return;
+        }
+
+        // Lobby choice, the default lobby is joined if none is requested
+        if ((session.lobby == null) && (frame.getType() == ServerCode.JOIN_LOBBY)) {
+            String lobbyName = frame.getText();
+            session.lobby = this.server.findLobby(lobbyName);
+
+            if (session.lobby == null) {
+                this.reject(session, "Lobby '" + lobbyName + "' does not exist");
+            }
+
+            return;
+        }
+
+        // Return to the session of a dropped connection
+        if (!session.registered && (session.lobby == null) && (frame.getType() == ServerCode.RESUME)) {
+            this.resume(session, frame.getText());
+            return;
+        }
+
+        // Name registration
+        if (!session.registered) {
+            if (frame.getType() != ServerCode.REGISTER) {
+                this.reject(session, "Expected name registration");
+                return;
+            }
+
+            if (session.lobby == null) {
+                session.lobby = this.server.findLobby(null);
+            }
+
+            if (session.lobby.getState() != ServerState.ACCEPTING) {
+                this.reject(session, "Lobby '" + session.lobby.getName() + "' is not accepting players");
+                return;
+            }
+
+            // The name becomes part of the player's class name
+            String name = frame.getText();
+
+            if (!ObjectLoader.isValidName(name)) {
+                this.reject(session, "Name '" + name + "' is not a valid Java identifier");
+                return;
+            }
+
+            String token = this.server.register(session.client, session.lobby, name);
+
+            if (token == null) {
+                this.reject(session, "Name '" + name + "' taken");
+                return;
+            }
+
+            session.registered = true;
+            this.sendOrDrop(session, new Frame(ServerCode.ACCEPTED, token));
+
+            if (session.lobby.getState() == ServerState.CORRESPONDING) {
+                this.sendNextScreen(session);
+            }
+
+            return;
+        }
+
+        // Code submission
+        if (HostServer.isSubmission(frame.getType())) {
+            // Replies once the source is stored, from the storage thread unless nothing had to be written
+            this.server.submit(session.client, frame).thenAccept((reply) -> {
+                if ((reply != null) && !this.send(session.client, reply)) {
+                    this.drop(session.client);
+                }
+            });
+        } else if (frame.getType() == ServerCode.SPECTATE) {
+            this.server.spectate(session.client);
+        }
+    }
+
+    /**
+     * resume
+     * Moves a dropped client's session onto a new connection.
+     * @param session the session of the new connection
+     * @param token the resume token of the dropped client
+     */
+    private void resume(Session session, String token) {
+        ParkedClient parkedClient = this.server.resume(token, session.client);
+
+        if (parkedClient == null) {
+            this.reject(session, "Session expired");
+            return;
+        }
+
+        // Sessions are keyed by the client which now uses this connection
+        this.sessions.remove(session.client, session);
+        session.client = parkedClient.getClient();
+        this.sessions.put(session.client, session);
+
+        session.lobby = parkedClient.getLobby();
+        session.nextScreenSent = parkedClient.isNextScreenSent();
+        session.registered = true;
+        this.sendOrDrop(session, new Frame(ServerCode.ACCEPTED, token));
+
+        if (session.lobby.getState() == ServerState.CORRESPONDING) {
+            this.sendNextScreen(session);
+        }
+    }
+
+    /**
+     * reject
+     * Sends a {@link ServerCode#DISCONNECT} message and closes the session once it is written.
+     * @param session the client session
+     * @param reason the reason shown to the client
+     */
+    private void reject(Session session, String reason) {
+        session.closing = true;
+
+        if (this.send(session, new Frame(ServerCode.DISCONNECT, reason), false) == null) {
+            this.drop(session);
+        }
+    }
+
+    /**
+     * sendNextScreen
+     * Sends the {@link ServerCode#NEXT_SCREEN} message to a registered client once.
+     * @param session the client session
+     */
+    private void sendNextScreen(Session session) {
+        if (!session.registered || session.nextScreenSent) {
+            return;
+        }
+
+        session.nextScreenSent = true;
+        this.sendOrDrop(session, new Frame(ServerCode.NEXT_SCREEN));
+    }
+
+    /**
+     * sendOrDrop
+     * Queues a {@link Frame} from the event loop, dropping the client if it has fallen too far behind.
+     * The event loop never waits for space, so {@link OverflowPolicy#BLOCK} drops the client as well.
+     * @param session the client session
+     * @param frame the frame to send
+     */
+    private void sendOrDrop(Session session, Frame frame) {
+        if ((this.send(session, frame, false) == null) && (this.overflowPolicy != OverflowPolicy.DROP)) {
+            this.drop(session);
+        }
+    }
+
+    /**
+     * send
+     * Queues a {@link Frame} to be written to a client.
+     * May be called from any thread, but the event loop itself never waits for space.
+     * @param session the client session
+     * @param frame the frame to send
+     * @param mayBlock if the calling thread may wait for space in the queue
+     * @return the message which carries the frame, or null if the queue was full or closed
+     */
+    private OutboundMessage send(Session session, Frame frame, boolean mayBlock) {
+        boolean onLoop = Thread.currentThread() == this;
+        OutboundMessage message = session.output.offer(frame, mayBlock && !onLoop);
+
+        if (message == null) {
+            return null;
+        }
+
+        if (onLoop) {
+            this.flush(session);
+        } else {
+            this.pendingWrites.add(session);
+            this.selector.wakeup();
+        }
+
+        return message;
+    }
+
+    /**
+     * flushPending
+     * Flushes the sessions which were written to by other threads.
+     */
+    private void flushPending() {
+        Session session;
+
+        while ((session = this.pendingDrops.poll()) != null) {
+            this.drop(session);
+        }
+
+        // Open submissions in lobbies which started corresponding
+        Lobby lobby;
+
+        while ((lobby = this.pendingStates.poll()) != null) {
+            if (lobby.getState() != ServerState.CORRESPONDING) {
+                continue;
+            }
+
+            for (Session member : this.sessions.values()) {
+                if (member.lobby == lobby) {
+                    this.sendNextScreen(member);
+                }
+            }
+        }
+
+        while ((session = this.pendingWrites.poll()) != null) {
+            this.flush(session);
+        }
+    }
+
+    /**
+     * flush
+     * Writes as much queued output to a client as the socket accepts without blocking.
+     * @param session the client session
+     */
+    private void flush(Session session) {
+        if (!session.key.isValid()) {
+            return;
+        }
+
+        try {
+            OutboundMessage message;
+
+            while ((message = session.output.peek()) != null) {
+                int bytesWritten = session.client.getChannel().write(message.getBuffer());
+                this.server.getMetrics().recordBytesOut(bytesWritten);
+
+                // Socket buffer is full, wait until it is writable
+                if (message.getBuffer().hasRemaining()) {
+                    session.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+
+                session.output.poll();
+                message.getWritten().complete(null);
+            }
+        } catch (IOException e) {
+            this.drop(session);
+            return;
+        }
+
+        session.key.interestOps(SelectionKey.OP_READ);
+
+        if (session.closing) {
+            this.drop(session);
+        }
+    }
+
+    /**
+     * drop
+     * Closes a client session and removes it from the server.
+     * @param session the client session
+     */
+    private void drop(Session session) {
+        if (!this.sessions.remove(session.client, session)) {
+            return;
+        }
+
+        session.key.cancel();
+
+        try {
+            session.client.close();
+        } catch (IOException e) {
+            System.out.println("Error occurred while attempting to close client socket");
+        }
+
+        // Fail messages which will never be written
+        session.output.close(new ClosedChannelException());
+
+        if (session.registered) {
+            this.server.disconnect(session.client);
+        }
+    }
+
+    /**
+     * isFlushed
+     * Checks if every queued message has been written.
+     * @return if no session has queued output
+     */
+    private boolean isFlushed() {
+        for (Session session : this.sessions.values()) {
+            if (!session.output.isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Per-client state of the event loop.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Session {
+        private ClientConnection client;
+        private final ByteBuffer input;
+        private final FrameDecoder decoder;
+        private final OutboundQueue output;
+
+        private SelectionKey key;
+        private Lobby lobby;
+        private boolean greeted;
+        private volatile boolean registered;
+        private boolean nextScreenSent;
+        private boolean closing;
+
+        /**
+         * Constructs a {@link Session}.
+         * @param client the client connection
+         * @param outboundCapacity the maximum number of messages waiting to be written
+         * @param overflowPolicy what to do when too many messages are waiting
+         */
+        public Session(ClientConnection client, int outboundCapacity, OverflowPolicy overflowPolicy) {
+            this.client = client;
+            this.input = ByteBuffer.allocate(BUFFER_SIZE);
+            this.decoder = new FrameDecoder();
+            this.output = new OutboundQueue(outboundCapacity, overflowPolicy);
+        }
+    }
+}
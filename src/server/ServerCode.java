@@ -2,12 +2,41 @@ package server;
 
 /**
  * Pre-defined constants for more efficient communicating over TCP/IP sockets.
+ * Each constant is the type of a {@link protocol.Frame}.
  * @author Harry Xu
  * @version 1.0 - December 27th 2023
  */
 public enum ServerCode {
     HEARTBEAT,
     NEXT_SCREEN,
+    /** The host refused or dropped the client, with the reason as text */
     DISCONNECT,
+    /** A complete code submission, with the source as text */
     SUBMISSION_FINISHED,
+    /** The first client frame, with the protocol version */
+    HELLO,
+    /** The client's requested name as text */
+    REGISTER,
+    /** The host accepted the client's name, with a resume token as text */
+    ACCEPTED,
+    /** The name of the lobby to join as text, optionally sent between {@link #HELLO} and {@link #REGISTER} */
+    JOIN_LOBBY,
+    /** A resume token as text, sent instead of {@link #REGISTER} to return to a dropped session */
+    RESUME,
+    /** A complete code submission, with the source compressed by {@link protocol.Compression} */
+    SUBMISSION_COMPRESSED,
+    /** The host refused a submission, with the reason as text */
+    SUBMISSION_REJECTED,
+    /** A code submission as a {@link protocol.SourcePatch} against the client's previous accepted submission */
+    SUBMISSION_PATCH,
+    /** The host accepted a submission, with the SHA-256 hash of the source */
+    SUBMISSION_ACCEPTED,
+    /** The host could not apply a patch and needs the whole source, with the reason as text */
+    SUBMISSION_RESYNC,
+    /** The client asks to watch the game, and for a new {@link #GAME_STATE} if it is already watching */
+    SPECTATE,
+    /** The whole game state, encoded by {@link game.GameState#encodeKeyframe()} */
+    GAME_STATE,
+    /** The changes to the game state in one cycle, encoded by {@link game.GameState#encodeDelta(game.GameState)} */
+    GAME_DELTA,
 }
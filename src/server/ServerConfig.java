@@ -0,0 +1,367 @@
+package server;
+
+import protocol.Protocol;
+
+import java.nio.file.Path;
+
+/**
+ * Tunable settings of a {@link HostServer}.
+ * A new instance holds the default value of every setting.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ServerConfig {
+    private ServerMode mode;
+    private int port;
+    private long heartbeatInterval;
+    private long heartbeatTimeout;
+    private long broadcastTimeout;
+    private int outboundCapacity;
+    private OverflowPolicy overflowPolicy;
+    private long resumeGrace;
+    private int maxSubmissionSize;
+    private int submissionBurst;
+    private long submissionInterval;
+    private boolean spectatorStreaming;
+    private Path storageDirectory;
+    private int compileWorkers;
+    private long classCacheSize;
+
+    /**
+     * Constructs a {@link ServerConfig} with default settings.
+     */
+    public ServerConfig() {
+        this.mode = ServerMode.THREADED;
+        this.port = 0;
+        this.heartbeatInterval = 500;
+        this.heartbeatTimeout = 5000;
+        this.broadcastTimeout = 2000;
+        this.outboundCapacity = 64;
+        this.overflowPolicy = OverflowPolicy.DISCONNECT;
+        this.resumeGrace = 30000;
+        this.maxSubmissionSize = 1024 * 1024;
+        this.submissionBurst = 3;
+        this.submissionInterval = 10000;
+        this.spectatorStreaming = false;
+        this.storageDirectory = null;
+        this.compileWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.classCacheSize = 64L * 1024 * 1024;
+    }
+
+    /**
+     * getMode
+     * Gets how client socket I/O is performed.
+     * @return the server mode
+     */
+    public ServerMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * setMode
+     * Sets how client socket I/O is performed.
+     * @param mode the server mode
+     */
+    public void setMode(ServerMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * getPort
+     * Gets the port the server listens on.
+     * @return the port, or 0 if one is allocated automatically
+     */
+    public int getPort() {
+        return this.port;
+    }
+
+    /**
+     * setPort
+     * Sets the port the server listens on.
+     * @param port the port, or 0 to have one allocated automatically
+     */
+    public void setPort(int port) {
+        if ((port < 0) || (port > 65535)) {
+            throw new IllegalArgumentException("Port " + port + " out of range");
+        }
+
+        this.port = port;
+    }
+
+    /**
+     * getHeartbeatInterval
+     * Gets the time between heartbeats sent to each client.
+     * @return the heartbeat interval in milliseconds
+     */
+    public long getHeartbeatInterval() {
+        return this.heartbeatInterval;
+    }
+
+    /**
+     * setHeartbeatInterval
+     * Sets the time between heartbeats sent to each client.
+     * @param heartbeatInterval the heartbeat interval in milliseconds
+     */
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        if (heartbeatInterval <= 0) {
+            throw new IllegalArgumentException("Heartbeat interval must be positive");
+        }
+
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * getHeartbeatTimeout
+     * Gets how long a client may stay silent before it is considered dead.
+     * @return the heartbeat timeout in milliseconds
+     */
+    public long getHeartbeatTimeout() {
+        return this.heartbeatTimeout;
+    }
+
+    /**
+     * setHeartbeatTimeout
+     * Sets how long a client may stay silent before it is considered dead.
+     * @param heartbeatTimeout the heartbeat timeout in milliseconds
+     */
+    public void setHeartbeatTimeout(long heartbeatTimeout) {
+        if (heartbeatTimeout <= 0) {
+            throw new IllegalArgumentException("Heartbeat timeout must be positive");
+        }
+
+        this.heartbeatTimeout = heartbeatTimeout;
+    }
+
+    /**
+     * getBroadcastTimeout
+     * Gets how long a broadcast may take to reach each client before the client is evicted.
+     * @return the broadcast timeout in milliseconds
+     */
+    public long getBroadcastTimeout() {
+        return this.broadcastTimeout;
+    }
+
+    /**
+     * setBroadcastTimeout
+     * Sets how long a broadcast may take to reach each client before the client is evicted.
+     * @param broadcastTimeout the broadcast timeout in milliseconds
+     */
+    public void setBroadcastTimeout(long broadcastTimeout) {
+        if (broadcastTimeout <= 0) {
+            throw new IllegalArgumentException("Broadcast timeout must be positive");
+        }
+
+        this.broadcastTimeout = broadcastTimeout;
+    }
+
+    /**
+     * getOutboundCapacity
+     * Gets the number of messages which may wait to be written to a client.
+     * @return the outbound queue capacity
+     */
+    public int getOutboundCapacity() {
+        return this.outboundCapacity;
+    }
+
+    /**
+     * setOutboundCapacity
+     * Sets the number of messages which may wait to be written to a client.
+     * @param outboundCapacity the outbound queue capacity
+     */
+    public void setOutboundCapacity(int outboundCapacity) {
+        if (outboundCapacity <= 0) {
+            throw new IllegalArgumentException("Outbound capacity must be positive");
+        }
+
+        this.outboundCapacity = outboundCapacity;
+    }
+
+    /**
+     * getOverflowPolicy
+     * Gets what happens when a client's outbound queue is full.
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    /**
+     * setOverflowPolicy
+     * Sets what happens when a client's outbound queue is full.
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * getResumeGrace
+     * Gets how long a dropped client keeps its name and submission while it reconnects.
+     * @return the resume grace window in milliseconds
+     */
+    public long getResumeGrace() {
+        return this.resumeGrace;
+    }
+
+    /**
+     * setResumeGrace
+     * Sets how long a dropped client keeps its name and submission while it reconnects.
+     * @param resumeGrace the resume grace window in milliseconds, or 0 to remove dropped clients immediately
+     */
+    public void setResumeGrace(long resumeGrace) {
+        if (resumeGrace < 0) {
+            throw new IllegalArgumentException("Resume grace must not be negative");
+        }
+
+        this.resumeGrace = resumeGrace;
+    }
+
+    /**
+     * getMaxSubmissionSize
+     * Gets the largest source a client may submit.
+     * @return the maximum submission size in bytes of UTF-8
+     */
+    public int getMaxSubmissionSize() {
+        return this.maxSubmissionSize;
+    }
+
+    /**
+     * setMaxSubmissionSize
+     * Sets the largest source a client may submit.
+     * Larger submissions are refused as soon as their size is known, before they are buffered.
+     * @param maxSubmissionSize the maximum submission size in bytes of UTF-8
+     */
+    public void setMaxSubmissionSize(int maxSubmissionSize) {
+        if ((maxSubmissionSize <= 0) || (maxSubmissionSize > Protocol.MAX_PAYLOAD)) {
+            throw new IllegalArgumentException("Maximum submission size must be between 1 and " + Protocol.MAX_PAYLOAD);
+        }
+
+        this.maxSubmissionSize = maxSubmissionSize;
+    }
+
+    /**
+     * getSubmissionBurst
+     * Gets how many submissions a client may send in quick succession.
+     * @return the submission burst
+     */
+    public int getSubmissionBurst() {
+        return this.submissionBurst;
+    }
+
+    /**
+     * setSubmissionBurst
+     * Sets how many submissions a client may send in quick succession.
+     * @param submissionBurst the submission burst
+     */
+    public void setSubmissionBurst(int submissionBurst) {
+        if (submissionBurst <= 0) {
+            throw new IllegalArgumentException("Submission burst must be positive");
+        }
+
+        this.submissionBurst = submissionBurst;
+    }
+
+    /**
+     * getSubmissionInterval
+     * Gets how long a client waits to earn one more submission once its burst is used up.
+     * @return the submission interval in milliseconds
+     */
+    public long getSubmissionInterval() {
+        return this.submissionInterval;
+    }
+
+    /**
+     * setSubmissionInterval
+     * Sets how long a client waits to earn one more submission once its burst is used up.
+     * @param submissionInterval the submission interval in milliseconds, or 0 to not limit the rate
+     */
+    public void setSubmissionInterval(long submissionInterval) {
+        if (submissionInterval < 0) {
+            throw new IllegalArgumentException("Submission interval must not be negative");
+        }
+
+        this.submissionInterval = submissionInterval;
+    }
+
+    /**
+     * isSpectatorStreaming
+     * Checks if clients may ask to watch the game, which keeps the server open until the game ends.
+     * @return if the game is streamed to spectators
+     */
+    public boolean isSpectatorStreaming() {
+        return this.spectatorStreaming;
+    }
+
+    /**
+     * setSpectatorStreaming
+     * Sets if clients may ask to watch the game, which keeps the server open until the game ends.
+     * @param spectatorStreaming if the game is streamed to spectators
+     */
+    public void setSpectatorStreaming(boolean spectatorStreaming) {
+        this.spectatorStreaming = spectatorStreaming;
+    }
+
+    /**
+     * getStorageDirectory
+     * Gets the directory where submissions are kept after the host exits.
+     * @return the storage directory, or null if submissions are only kept in memory
+     */
+    public Path getStorageDirectory() {
+        return this.storageDirectory;
+    }
+
+    /**
+     * setStorageDirectory
+     * Sets the directory where submissions are kept after the host exits.
+     * @param storageDirectory the storage directory, or null to only keep submissions in memory
+     */
+    public void setStorageDirectory(Path storageDirectory) {
+        this.storageDirectory = storageDirectory;
+    }
+
+    /**
+     * getCompileWorkers
+     * Gets how many submissions are compiled in the background at once, ahead of the game.
+     * @return the number of compile workers, or 0 if submissions are only compiled when the game starts
+     */
+    public int getCompileWorkers() {
+        return this.compileWorkers;
+    }
+
+    /**
+     * setCompileWorkers
+     * Sets how many submissions are compiled in the background at once, ahead of the game.
+     * @param compileWorkers the number of compile workers, or 0 to only compile submissions when the game starts
+     */
+    public void setCompileWorkers(int compileWorkers) {
+        if (compileWorkers < 0) {
+            throw new IllegalArgumentException("Compile workers must not be negative");
+        }
+
+        this.compileWorkers = compileWorkers;
+    }
+
+    /**
+     * getClassCacheSize
+     * Gets how many bytes of compiled classes are kept in the storage directory,
+     * so sources which were compiled before are not compiled again.
+     * @return the class cache size in bytes, or 0 if compiled classes are not kept
+     */
+    public long getClassCacheSize() {
+        return this.classCacheSize;
+    }
+
+    /**
+     * setClassCacheSize
+     * Sets how many bytes of compiled classes are kept in the storage directory,
+     * so sources which were compiled before are not compiled again.
+     * @param classCacheSize the class cache size in bytes, or 0 to not keep compiled classes
+     */
+    public void setClassCacheSize(long classCacheSize) {
+        if (classCacheSize < 0) {
+            throw new IllegalArgumentException("Class cache size must not be negative");
+        }
+
+        this.classCacheSize = classCacheSize;
+    }
+}
@@ -0,0 +1,15 @@
+package server;
+
+/**
+ * Constants for specifying how the {@link HostServer} performs client socket I/O.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum ServerMode {
+    /** A dedicated handler thread is created for each client socket */
+    THREADED,
+    /** Like {@link #THREADED}, but handlers, broadcasts and heartbeat writes run on virtual threads */
+    VIRTUAL,
+    /** All client sockets are multiplexed on a single non-blocking selector thread */
+    SELECTOR,
+}
@@ -0,0 +1,344 @@
+package server;
+
+import protocol.SourcePatch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * A content-addressed store of submitted sources on disk, keyed by the SHA-256 hash of their UTF-8 bytes.
+ * Sources are appended to a segment file as a hash, a length and the bytes,
+ * and each record's position is appended to an index file so the archive opens without reading every source.
+ * Records past the end of the index, left by a host which stopped between the two writes, are checked
+ * against their hash and indexed again on open, while a torn record at the end of either file is cut off.
+ * Sources are read back through a memory mapping of the segment, and identical sources are stored once,
+ * including across separate runs of the host.
+ * The segment is mapped as a whole, so it holds at most 2 GiB of sources.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class SubmissionArchive implements AutoCloseable {
+    /** The names of the files in the archive directory */
+    public static final String SEGMENT_FILE = "submissions.seg";
+    public static final String INDEX_FILE = "submissions.idx";
+
+    /** A segment record header holds the hash and the source length */
+    private static final int RECORD_HEADER_SIZE = SourcePatch.HASH_SIZE + 4;
+
+    /** An index entry holds the hash, the record offset and the source length */
+    private static final int INDEX_ENTRY_SIZE = SourcePatch.HASH_SIZE + 8 + 4;
+
+    private final FileChannel segment;
+    private final FileChannel index;
+
+    /** The location of every source by hexadecimal hash */
+    private final Map<String, Location> locations;
+
+    /** Where the next record is appended in the segment */
+    private long segmentEnd;
+
+    /** A read-only view of the start of the segment, which is mapped again once records pass its end */
+    private MappedByteBuffer mapped;
+
+    /**
+     * Constructs a {@link SubmissionArchive} from opened files.
+     * @param segment the segment file
+     * @param index the index file
+     */
+    private SubmissionArchive(FileChannel segment, FileChannel index) {
+        this.segment = segment;
+        this.index = index;
+        this.locations = new HashMap<>();
+    }
+
+    /**
+     * open
+     * Opens the archive in a directory, creating the directory and its files if needed.
+     * @param directory the archive directory
+     * @return the archive
+     * @throws IOException if an I/O error occurs while reading or repairing the archive
+     */
+    public static SubmissionArchive open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+
+        FileChannel segment = FileChannel.open(
+                directory.resolve(SEGMENT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        FileChannel index;
+
+        try {
+            index = FileChannel.open(
+                    directory.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE
+            );
+        } catch (IOException e) {
+            segment.close();
+            throw e;
+        }
+
+        SubmissionArchive archive = new SubmissionArchive(segment, index);
+
+        try {
+            archive.readIndex();
+            archive.recoverSegment();
+        } catch (IOException e) {
+            archive.close();
+            throw e;
+        }
+
+        return archive;
+    }
+
+    /**
+     * put
+     * Stores a source unless an identical source is already stored.
+     * @param source the source
+     * @return the SHA-256 hash of the source, which {@link #get(byte[])} finds it by
+     * @throws IOException if an I/O error occurs while appending the source
+     */
+    public byte[] put(String source) throws IOException {
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        byte[] hash = SourcePatch.hash(bytes);
+
+        synchronized (this) {
+            String key = HexFormat.of().formatHex(hash);
+
+            if (this.locations.containsKey(key)) {
+                return hash;
+            }
+
+            long offset = this.segmentEnd;
+
+            if (offset + RECORD_HEADER_SIZE + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Submission archive is full");
+            }
+
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+            record.put(hash).putInt(bytes.length).put(bytes).flip();
+            writeFully(this.segment, record, offset);
+
+            // The index is written last, so a record without an entry is found again on open
+            this.appendIndex(hash, offset, bytes.length);
+
+            this.segmentEnd = offset + record.capacity();
+            this.locations.put(key, new Location(offset + RECORD_HEADER_SIZE, bytes.length));
+        }
+
+        return hash;
+    }
+
+    /**
+     * get
+     * Reads a stored source.
+     * @param hash the SHA-256 hash of the source
+     * @return the source, or null if it is not stored
+     * @throws IOException if an I/O error occurs while mapping the segment
+     */
+    public synchronized String get(byte[] hash) throws IOException {
+        Location location = this.locations.get(HexFormat.of().formatHex(hash));
+
+        if (location == null) {
+            return null;
+        }
+
+        // Map the whole segment again once it has grown past the mapping
+        if ((this.mapped == null) || (location.offset + location.length > this.mapped.capacity())) {
+            this.mapped = this.segment.map(FileChannel.MapMode.READ_ONLY, 0, this.segmentEnd);
+        }
+
+        byte[] bytes = new byte[location.length];
+        this.mapped.get((int) location.offset, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * contains
+     * Checks if a source is stored.
+     * @param hash the SHA-256 hash of the source
+     * @return if the source is stored
+     */
+    public synchronized boolean contains(byte[] hash) {
+        return this.locations.containsKey(HexFormat.of().formatHex(hash));
+    }
+
+    /**
+     * size
+     * Gets the number of distinct sources stored.
+     * @return the number of sources
+     */
+    public synchronized int size() {
+        return this.locations.size();
+    }
+
+    /**
+     * close
+     * Writes the archive to disk and closes its files.
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (this.segment.isOpen()) {
+                this.segment.force(true);
+            }
+
+            if (this.index.isOpen()) {
+                this.index.force(true);
+            }
+        } finally {
+            this.mapped = null;
+            this.segment.close();
+            this.index.close();
+        }
+    }
+
+    /**
+     * readIndex
+     * Loads every whole index entry which points inside the segment, and cuts off the rest of the index.
+     * @throws IOException if an I/O error occurs
+     */
+    private void readIndex() throws IOException {
+        long segmentSize = this.segment.size();
+        long entries = this.index.size() / INDEX_ENTRY_SIZE;
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        long valid = 0;
+
+        for (long i = 0; i < entries; i++) {
+            entry.clear();
+            readFully(this.index, entry, i * INDEX_ENTRY_SIZE);
+            entry.flip();
+
+            byte[] hash = new byte[SourcePatch.HASH_SIZE];
+            entry.get(hash);
+            long offset = entry.getLong();
+            int length = entry.getInt();
+
+            if ((offset < 0) || (length < 0) || (offset + RECORD_HEADER_SIZE + length > segmentSize)) {
+                break;
+            }
+
+            this.locations.put(HexFormat.of().formatHex(hash), new Location(offset + RECORD_HEADER_SIZE, length));
+            this.segmentEnd = Math.max(this.segmentEnd, offset + RECORD_HEADER_SIZE + length);
+            valid = i + 1;
+        }
+
+        this.index.truncate(valid * INDEX_ENTRY_SIZE);
+    }
+
+    /**
+     * recoverSegment
+     * Indexes the records written after the last index entry, and cuts off a torn record at the end of the segment.
+     * @throws IOException if an I/O error occurs
+     */
+    private void recoverSegment() throws IOException {
+        long segmentSize = this.segment.size();
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+
+        while (this.segmentEnd + RECORD_HEADER_SIZE <= segmentSize) {
+            header.clear();
+            readFully(this.segment, header, this.segmentEnd);
+            header.flip();
+
+            byte[] hash = new byte[SourcePatch.HASH_SIZE];
+            header.get(hash);
+            int length = header.getInt();
+
+            if ((length < 0) || (this.segmentEnd + RECORD_HEADER_SIZE + length > segmentSize)) {
+                break;
+            }
+
+            ByteBuffer source = ByteBuffer.allocate(length);
+            readFully(this.segment, source, this.segmentEnd + RECORD_HEADER_SIZE);
+
+            if (!MessageDigest.isEqual(hash, SourcePatch.hash(source.array()))) {
+                break;
+            }
+
+            this.appendIndex(hash, this.segmentEnd, length);
+            this.locations.put(HexFormat.of().formatHex(hash), new Location(this.segmentEnd + RECORD_HEADER_SIZE, length));
+            this.segmentEnd += RECORD_HEADER_SIZE + length;
+        }
+
+        this.segment.truncate(this.segmentEnd);
+    }
+
+    /**
+     * appendIndex
+     * Appends the entry of a record to the index.
+     * @param hash the hash of the source
+     * @param offset the offset of the record in the segment
+     * @param length the length of the source
+     * @throws IOException if an I/O error occurs
+     */
+    private void appendIndex(byte[] hash, long offset, int length) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        entry.put(hash).putLong(offset).putInt(length).flip();
+        writeFully(this.index, entry, this.index.size());
+    }
+
+    /**
+     * readFully
+     * Fills a buffer from a position in a file.
+     * @param channel the file
+     * @param buffer the buffer to fill
+     * @param position the position to read from
+     * @throws IOException if the file ends first or an I/O error occurs
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+
+            if (read < 0) {
+                throw new IOException("Unexpected end of archive file");
+            }
+
+            position += read;
+        }
+    }
+
+    /**
+     * writeFully
+     * Writes a whole buffer at a position in a file.
+     * @param channel the file
+     * @param buffer the buffer to write
+     * @param position the position to write to
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Where a source is stored in the segment.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Location {
+        private final long offset;
+        private final int length;
+
+        /**
+         * Constructs a {@link Location}.
+         * @param offset the offset of the source bytes in the segment
+         * @param length the length of the source in bytes
+         */
+        Location(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the code submissions received by a {@link HostServer} and the bytes they took on the wire,
+ * so the savings of {@link ServerCode#SUBMISSION_COMPRESSED} and {@link ServerCode#SUBMISSION_PATCH} can be reported.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class SubmissionStats {
+    private final LongAdder submissions;
+    private final LongAdder compressedSubmissions;
+    private final LongAdder sourceBytes;
+    private final LongAdder wireBytes;
+
+    /**
+     * Constructs a {@link SubmissionStats} with every count at zero.
+     */
+    SubmissionStats() {
+        this.submissions = new LongAdder();
+        this.compressedSubmissions = new LongAdder();
+        this.sourceBytes = new LongAdder();
+        this.wireBytes = new LongAdder();
+    }
+
+    /**
+     * record
+     * Counts a received submission.
+     * @param sourceBytes the size of the source as UTF-8
+     * @param wireBytes the size of the payload which was sent
+     * @param compressed if the submission was compressed
+     */
+    void record(long sourceBytes, long wireBytes, boolean compressed) {
+        this.submissions.increment();
+        this.sourceBytes.add(sourceBytes);
+        this.wireBytes.add(wireBytes);
+
+        if (compressed) {
+            this.compressedSubmissions.increment();
+        }
+    }
+
+    /**
+     * getSubmissions
+     * Gets the number of submissions received.
+     * @return the number of submissions
+     */
+    public long getSubmissions() {
+        return this.submissions.sum();
+    }
+
+    /**
+     * getCompressedSubmissions
+     * Gets the number of submissions which arrived compressed.
+     * @return the number of compressed submissions
+     */
+    public long getCompressedSubmissions() {
+        return this.compressedSubmissions.sum();
+    }
+
+    /**
+     * getSourceBytes
+     * Gets the total size of every submitted source as UTF-8.
+     * @return the source size in bytes
+     */
+    public long getSourceBytes() {
+        return this.sourceBytes.sum();
+    }
+
+    /**
+     * getWireBytes
+     * Gets the total size of every submission payload as it was sent.
+     * @return the payload size in bytes
+     */
+    public long getWireBytes() {
+        return this.wireBytes.sum();
+    }
+
+    /**
+     * getSavedBytes
+     * Gets how many bytes compression and patches kept off the wire.
+     * @return the saved bytes
+     */
+    public long getSavedBytes() {
+        return this.getSourceBytes() - this.getWireBytes();
+    }
+
+    /**
+     * toString
+     * Summarizes the counts.
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+        return this.getSubmissions() + " submissions (" + this.getCompressedSubmissions() + " compressed), "
+                + this.getWireBytes() + " of " + this.getSourceBytes() + " bytes sent, "
+                + this.getSavedBytes() + " saved";
+    }
+}
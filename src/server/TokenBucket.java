@@ -0,0 +1,71 @@
+package server;
+
+/**
+ * A token bucket which limits how often an action may happen.
+ * The bucket starts full, each action takes a token, and tokens are earned back at a fixed interval.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class TokenBucket {
+    private final int capacity;
+    private final long refillNanos;
+
+    private long tokens;
+
+    /** When the next token is earned, from {@link System#nanoTime()} */
+    private long nextRefill;
+
+    /**
+     * Constructs a full {@link TokenBucket}.
+     * @param capacity the number of tokens the bucket holds
+     * @param refillNanos the time it takes to earn one token in nanoseconds
+     */
+    TokenBucket(int capacity, long refillNanos) {
+        this.capacity = capacity;
+        this.refillNanos = refillNanos;
+        this.tokens = capacity;
+        this.nextRefill = System.nanoTime() + refillNanos;
+    }
+
+    /**
+     * tryAcquire
+     * Takes a token if one is available.
+     * @return if a token was taken
+     */
+    synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+
+        // Earn every token due since the last call, without going over capacity
+        if (now - this.nextRefill >= 0) {
+            long earned = 1 + (now - this.nextRefill) / this.refillNanos;
+            this.tokens = Math.min(this.capacity, this.tokens + earned);
+            this.nextRefill += earned * this.refillNanos;
+        }
+
+        if (this.tokens == 0) {
+            return false;
+        }
+
+        // A full bucket starts counting towards the next token from now
+        if (this.tokens == this.capacity) {
+            this.nextRefill = now + this.refillNanos;
+        }
+
+        this.tokens--;
+
+        return true;
+    }
+
+    /**
+     * getWaitNanos
+     * Gets how long until the next token is earned.
+     * @return the wait in nanoseconds, or 0 if a token is available
+     */
+    synchronized long getWaitNanos() {
+        if (this.tokens > 0) {
+            return 0;
+        }
+
+        return Math.max(0, this.nextRefill - System.nanoTime());
+    }
+}